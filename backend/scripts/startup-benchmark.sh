@@ -0,0 +1,103 @@
+#!/bin/bash
+
+# 启动时间基准测试：测量从启动 JVM 到就绪探针返回 UP 的时间
+# 用法: ./scripts/startup-benchmark.sh [运行次数]
+# 需要可访问的 MySQL（DB_HOST/DB_PORT/DB_USER/DB_PASSWORD），表结构由 database/init.sql 创建
+#
+# 可选环境变量:
+#   SKIP_BUILD=true        跳过 Maven 构建，复用 target/ 中的 JAR
+#   EXTRA_CLASSPATH=...    追加到类路径（例如本地测试用的 JDBC 驱动）
+#   JAVA_EXTRA_OPTS=...    追加到每次启动的 JVM 参数
+#   PORT=18080             基准测试使用的端口
+
+set -e
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+SCRIPT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")" && pwd)"
+BACKEND_DIR="$(dirname "$SCRIPT_DIR")"
+WORK_DIR="$BACKEND_DIR/target/startup-benchmark"
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m'
+
+print_info() {
+    echo -e "${GREEN}[INFO]${NC} $1"
+}
+
+print_step() {
+    echo -e "${BLUE}[STEP]${NC} $1"
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+if [ "$SKIP_BUILD" != "true" ]; then
+    print_step "构建快速启动 JAR (Spring AOT)..."
+    (cd "$BACKEND_DIR" && mvn -B -q -Pfast-startup clean package -DskipTests)
+fi
+
+JAR=$(ls "$BACKEND_DIR"/target/*.jar | head -1)
+
+print_step "解包 JAR（与 Dockerfile 中的布局相同）..."
+rm -rf "$WORK_DIR" && mkdir -p "$WORK_DIR"
+cd "$WORK_DIR"
+jar xf "$JAR"
+jar cf app.jar -C BOOT-INF/classes .
+mv BOOT-INF/lib lib
+CLASSPATH_ARG="app.jar:$(ls lib/*.jar | tr '\n' ':' | sed 's/:$//')"
+if [ -n "$EXTRA_CLASSPATH" ]; then
+    CLASSPATH_ARG="$CLASSPATH_ARG:$EXTRA_CLASSPATH"
+fi
+
+FAST_OPTS="-Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup"
+
+print_step "训练运行，生成 CDS 归档..."
+java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh $FAST_OPTS $JAVA_EXTRA_OPTS \
+    -cp "$CLASSPATH_ARG" com.ecommerce.EcommerceApplication > cds-training.log 2>&1 || true
+
+# 启动一次并返回到就绪所用的毫秒数，同时记录应用自报的 application.ready.time
+measure() {
+    local start ready_ms app_ready
+    start=$(now_ms)
+    java $JAVA_EXTRA_OPTS -Dserver.port=$PORT "$@" > run.log 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/actuator/health/readiness" > /dev/null 2>&1; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "启动失败，日志见 $WORK_DIR/run.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready_ms=$(( $(now_ms) - start ))
+    app_ready=$(curl -sf "http://localhost:$PORT/actuator/metrics/application.ready.time" \
+        | sed -E 's/.*"value":([0-9.E-]+).*/\1/')
+    kill $pid && wait $pid 2>/dev/null || true
+    echo "$ready_ms $app_ready"
+}
+
+run_mode() {
+    local name=$1
+    shift
+    local results=()
+    for i in $(seq 1 "$RUNS"); do
+        results+=("$(measure "$@")")
+    done
+    printf '%s\n' "${results[@]}" | sort -n | awk -v name="$name" '
+        { wall[NR] = $1; app[NR] = $2 * 1000 }
+        END {
+            mid = int((NR + 1) / 2)
+            printf "%-28s 就绪(中位数) %6d ms   最快 %6d ms   最慢 %6d ms   application.ready.time %6d ms\n",
+                name, wall[mid], wall[1], wall[NR], app[mid]
+        }'
+}
+
+print_step "每种模式运行 $RUNS 次..."
+echo
+run_mode "baseline (java -jar)" -jar "$JAR"
+run_mode "fast-startup (AOT)" $FAST_OPTS -cp "$CLASSPATH_ARG" com.ecommerce.EcommerceApplication
+run_mode "fast-startup + AppCDS" -XX:SharedArchiveFile=app.jsa $FAST_OPTS -cp "$CLASSPATH_ARG" com.ecommerce.EcommerceApplication
+echo
+print_info "完成。日志位于 $WORK_DIR"
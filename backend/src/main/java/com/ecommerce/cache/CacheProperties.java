@@ -0,0 +1,89 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 产品读缓存配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.cache")
+public class CacheProperties {
+
+    /** 是否缓存产品读取结果 */
+    private boolean enabled = true;
+
+    /** 缓存条目的存活时间，超过后重新从数据库读取 */
+    private Duration ttl = Duration.ofSeconds(60);
+
+    /** 按ID缓存的产品数量上限 */
+    private int maxEntries = 10000;
+
+    /** 已序列化 JSON 的缓存 */
+    private final Json json = new Json();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public Json getJson() {
+        return json;
+    }
+
+    public static class Json {
+
+        /** 是否缓存产品和产品列表序列化后的 JSON 字节 */
+        private boolean enabled = true;
+
+        /** 按产品缓存的 JSON 总字节数上限 */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        /** 小于该大小的响应不压缩 */
+        private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getGzipMinSize() {
+            return gzipMinSize;
+        }
+
+        public void setGzipMinSize(DataSize gzipMinSize) {
+            this.gzipMinSize = gzipMinSize;
+        }
+    }
+}
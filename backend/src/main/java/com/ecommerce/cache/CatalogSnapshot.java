@@ -0,0 +1,251 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 内存映射的产品目录快照（只读）
+ * 文件布局（大端序）：
+ * <pre>
+ * 头部 40 字节: int 魔数, int 格式版本, long 水位线秒, int 水位线纳秒, long 生成时间毫秒, int 产品数, int 索引偏移, int 保留
+ * 记录区:      按 ProductCodec 编码的产品，按ID升序
+ * 索引区:      每个产品 12 字节（long id + int 记录偏移），按ID升序，用于二分查找
+ * </pre>
+ * 水位线是快照中所有产品 updatedAt 的最大值，启动时据此向数据库追赶之后的变更
+ */
+public final class CatalogSnapshot {
+
+    static final int MAGIC = 0x4543534E;
+    static final int FORMAT_VERSION = 2;
+    static final int HEADER_SIZE = 40;
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final LocalDateTime watermark;
+    private final Instant createdAt;
+    private final int count;
+    private final int indexOffset;
+
+    private CatalogSnapshot(Path path, MappedByteBuffer buffer, LocalDateTime watermark,
+                            Instant createdAt, int count, int indexOffset) {
+        this.path = path;
+        this.buffer = buffer;
+        this.watermark = watermark;
+        this.createdAt = createdAt;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * 映射并校验快照文件
+     * @throws IOException 文件不可读或格式无效
+     */
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("快照文件大小无效: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("不是目录快照文件: " + path);
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("不支持的快照格式版本: " + buffer.getInt(4));
+            }
+            long watermarkSeconds = buffer.getLong(8);
+            int watermarkNanos = buffer.getInt(16);
+            long createdAtMillis = buffer.getLong(20);
+            int count = buffer.getInt(28);
+            int indexOffset = buffer.getInt(32);
+            if (count < 0 || indexOffset < HEADER_SIZE
+                    || (long) indexOffset + (long) count * INDEX_ENTRY_SIZE != size) {
+                throw new IOException("快照文件已损坏: " + path);
+            }
+            LocalDateTime watermark = watermarkSeconds == Long.MIN_VALUE
+                    ? null
+                    : LocalDateTime.ofEpochSecond(watermarkSeconds, watermarkNanos, ZoneOffset.UTC);
+            return new CatalogSnapshot(path, buffer, watermark, Instant.ofEpochMilli(createdAtMillis),
+                    count, indexOffset);
+        }
+    }
+
+    /**
+     * 按ID查找产品，每次调用都会解码出新的产品对象
+     * @return 找到的产品，不存在时返回 null
+     */
+    public Product find(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return ProductCodec.decode(buffer, buffer.getInt(indexOffset + mid * INDEX_ENTRY_SIZE + 8));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按ID升序解码所有产品
+     */
+    public void forEach(Consumer<Product> action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(ProductCodec.decode(buffer, buffer.getInt(indexOffset + i * INDEX_ENTRY_SIZE + 8)));
+        }
+    }
+
+    /**
+     * 第 index 个（按ID升序）产品的ID
+     */
+    public long idAt(int index) {
+        return buffer.getLong(indexOffset + index * INDEX_ENTRY_SIZE);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * 快照中产品 updatedAt 的最大值，空快照时为 null
+     */
+    public LocalDateTime watermark() {
+        return watermark;
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * 开始写入新快照。先写入同目录下的临时文件，提交时原子替换目标文件，
+     * 正在被映射读取的旧快照不受影响
+     */
+    public static Writer writer(Path target) throws IOException {
+        return new Writer(target);
+    }
+
+    /**
+     * 快照写入器，产品必须按ID升序追加
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private ByteBuffer recordBuffer = ByteBuffer.allocate(4096);
+        private long[] ids = new long[1024];
+        private int[] offsets = new int[1024];
+        private int count;
+        private long position = HEADER_SIZE;
+        private LocalDateTime watermark;
+        private boolean committed;
+
+        private Writer(Path target) throws IOException {
+            this.target = target;
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            this.temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        public void append(Product product) throws IOException {
+            if (count > 0 && product.getId() <= ids[count - 1]) {
+                throw new IllegalArgumentException("快照中的产品必须按ID升序追加: " + product.getId());
+            }
+            int size = ProductCodec.encodedSize(product);
+            if (position + size + (long) (count + 1) * INDEX_ENTRY_SIZE > Integer.MAX_VALUE) {
+                throw new IOException("目录快照超过 2GB，无法映射");
+            }
+            if (recordBuffer.capacity() < size) {
+                recordBuffer = ByteBuffer.allocate(Math.max(size, recordBuffer.capacity() * 2));
+            }
+            recordBuffer.clear();
+            ProductCodec.encode(product, recordBuffer);
+            recordBuffer.flip();
+            writeFully(recordBuffer, position);
+
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            ids[count] = product.getId();
+            offsets[count] = (int) position;
+            count++;
+            position += size;
+            if (product.getUpdatedAt() != null
+                    && (watermark == null || product.getUpdatedAt().isAfter(watermark))) {
+                watermark = product.getUpdatedAt();
+            }
+        }
+
+        /**
+         * 写入索引和头部，落盘后原子替换目标文件
+         * @return 已写入的产品数
+         */
+        public int commit() throws IOException {
+            ByteBuffer index = ByteBuffer.allocate(count * INDEX_ENTRY_SIZE);
+            for (int i = 0; i < count; i++) {
+                index.putLong(ids[i]);
+                index.putInt(offsets[i]);
+            }
+            index.flip();
+            writeFully(index, position);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putInt(FORMAT_VERSION);
+            header.putLong(watermark == null ? Long.MIN_VALUE : watermark.toEpochSecond(ZoneOffset.UTC));
+            header.putInt(watermark == null ? 0 : watermark.getNano());
+            header.putLong(System.currentTimeMillis());
+            header.putInt(count);
+            header.putInt((int) position);
+            header.putInt(0);
+            header.flip();
+            writeFully(header, 0);
+
+            channel.force(true);
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        private void writeFully(ByteBuffer source, long at) throws IOException {
+            while (source.hasRemaining()) {
+                at += channel.write(source, at);
+            }
+        }
+    }
+}
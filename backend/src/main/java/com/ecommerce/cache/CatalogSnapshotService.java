@@ -0,0 +1,192 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductRowMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 目录快照的写入和启动加载
+ * 定期把产品目录写入本地快照文件；启动时映射上次的快照，向数据库追赶快照之后的变更，
+ * 再挂载到 ProductCache，使新实例不必在启动后集中从数据库读取整个目录。
+ * 追赶在预热之前、就绪之前完成。已挂载快照时，每次定期写入的新快照替换它
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@EnableConfigurationProperties(SnapshotProperties.class)
+public class CatalogSnapshotService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final SnapshotProperties properties;
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TaskScheduler taskScheduler;
+    private final Timer writeTimer;
+
+    /** 上次写入时的目录版本（产品数和最近修改时间），未变化时跳过写入 */
+    private volatile CatalogVersion writtenVersion;
+
+    public CatalogSnapshotService(SnapshotProperties properties,
+                                  ProductRepository productRepository,
+                                  ProductCache productCache,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  TaskScheduler taskScheduler,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.taskScheduler = taskScheduler;
+        this.writeTimer = Timer.builder("catalog.snapshot.write.duration")
+                .description("写入目录快照的耗时")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        taskScheduler.scheduleWithFixedDelay(this::scheduledWrite,
+                Instant.now().plus(properties.getInterval()), properties.getInterval());
+        if (!Files.isRegularFile(properties.getPath())) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            CatalogSnapshot snapshot = CatalogSnapshot.open(properties.getPath());
+            int changed = catchUp(snapshot);
+            log.info("已加载目录快照 {}: {} 个产品, 生成于 {}, 追赶 {} 个变更, 耗时 {} ms",
+                    snapshot.path(), snapshot.count(), snapshot.createdAt(), changed,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            productCache.detachSnapshot();
+            log.warn("加载目录快照失败，改为从数据库读取: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 向数据库追赶快照之后的变更：重新读取水位线之后修改过的产品，
+     * 并比对全部ID找出已删除的产品，然后把快照挂载到缓存。
+     * 追赶期间失效的产品（如 ProductChangeLog 传来的修改）同样不会从快照读取
+     * @return 需要追赶的产品数（含回看窗口内重新读取的产品和已删除的产品）
+     */
+    int catchUp(CatalogSnapshot snapshot) {
+        productCache.prepareSnapshot();
+        return Objects.requireNonNull(readOnlyTransaction.execute(status -> {
+            List<Product> changedProducts = snapshot.watermark() == null
+                    ? productRepository.findAll()
+                    : productRepository.findByUpdatedAtGreaterThanEqual(
+                            snapshot.watermark().minus(properties.getCatchUpMargin()));
+            Set<Long> liveIds = new HashSet<>(productRepository.findAllIds());
+
+            Map<Long, Product> changed = new HashMap<>();
+            for (Product product : changedProducts) {
+                changed.put(product.getId(), product);
+            }
+            Set<Long> deleted = new HashSet<>();
+            List<Product> products = new ArrayList<>(liveIds.size());
+            snapshot.forEach(product -> {
+                if (!liveIds.contains(product.getId())) {
+                    deleted.add(product.getId());
+                } else if (!changed.containsKey(product.getId())) {
+                    products.add(product);
+                }
+            });
+            products.addAll(changed.values());
+            products.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+
+            productCache.attachSnapshot(snapshot, changed.values(), deleted, products);
+            return changed.size() + deleted.size();
+        }));
+    }
+
+    /**
+     * 定期写入快照；目录自上次写入以来没有变化时跳过。
+     * 已挂载快照时用新快照替换，写入开始之后失效的产品不从新快照读取
+     */
+    void scheduledWrite() {
+        boolean replace = productCache.isSnapshotAttached();
+        try {
+            CatalogVersion version = currentVersion();
+            if (version.equals(writtenVersion)) {
+                return;
+            }
+            if (replace) {
+                productCache.prepareSnapshot();
+            }
+            int count = writeSnapshot();
+            writtenVersion = version;
+            if (replace) {
+                productCache.replaceSnapshot(CatalogSnapshot.open(properties.getPath()));
+            }
+            log.debug("已写入目录快照 {}: {} 个产品", properties.getPath(), count);
+        } catch (IOException | RuntimeException e) {
+            productCache.abandonSnapshot();
+            log.warn("写入目录快照失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 以 JDBC 按ID顺序流式读取所有产品并写入快照文件，不经过 JPA 持久化上下文
+     * @return 写入的产品数
+     */
+    public int writeSnapshot() {
+        return writeTimer.record(() -> readOnlyTransaction.execute(status -> {
+            try (CatalogSnapshot.Writer writer = CatalogSnapshot.writer(properties.getPath())) {
+                ProductRowMapper rowMapper = new ProductRowMapper();
+                jdbcTemplate.query("SELECT " + ProductRowMapper.COLUMNS + " FROM products ORDER BY id", rs -> {
+                    try {
+                        writer.append(rowMapper.mapRow(rs, 0));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return writer.commit();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private CatalogVersion currentVersion() {
+        return readOnlyTransaction.execute(status -> new CatalogVersion(
+                productRepository.count(),
+                productRepository.findLatestUpdatedAt().orElse(null)));
+    }
+
+    private record CatalogVersion(long count, LocalDateTime latestUpdate) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 跨实例缓存一致性（产品变更日志）配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.change-log")
+public class ChangeLogProperties {
+
+    /** 是否记录产品变更并轮询其他实例的变更 */
+    private boolean enabled = true;
+
+    /** 轮询间隔，即其他实例的修改在本实例最长的不可见时间 */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** 每次轮询最多读取的变更数 */
+    private int batchSize = 500;
+
+    /**
+     * version 出现空洞时等待的最长时间。version 在插入时分配、提交时才可见，
+     * 较早分配的事务可能晚提交；超过该时间仍未出现的 version 视为已回滚
+     */
+    private Duration gapTimeout = Duration.ofSeconds(10);
+
+    /** 变更记录的保留时间，过期的记录定期删除 */
+    private Duration retention = Duration.ofHours(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getGapTimeout() {
+        return gapTimeout;
+    }
+
+    public void setGapTimeout(Duration gapTimeout) {
+        this.gapTimeout = gapTimeout;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
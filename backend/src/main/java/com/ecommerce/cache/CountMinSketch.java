@@ -0,0 +1,87 @@
+package com.ecommerce.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * long 键的 count-min sketch，可并发计数
+ * depth 行、每行 width 个计数器，估计值取各行计数器的最小值，只会高估不会低估。
+ * 计数使用原子自增，不加锁；decay 把所有计数减半，与并发的自增交错时结果略有偏差，对热度估计无影响
+ */
+class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width 每行的计数器数，向上取整为 2 的幂；误差约为总计数的 e / width
+     * @param depth 行数；误差超出上述范围的概率约为 e^-depth
+     */
+    CountMinSketch(int width, int depth) {
+        this.width = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = Math.max(1, depth);
+        this.counters = new AtomicLongArray(this.width * this.depth);
+    }
+
+    /**
+     * 计数加一
+     * @return 加一之后的估计值
+     */
+    long add(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long count = counters.incrementAndGet(index(row, h1, h2));
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    long estimate(long key) {
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * 所有计数减半，使较早的访问按指数衰减
+     */
+    void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.updateAndGet(i, count -> count >>> 1);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    long sizeInBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    private int index(int row, int h1, int h2) {
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    /**
+     * MurmurHash3 的 64 位混合函数，使连续的自增ID分散到各个计数器
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
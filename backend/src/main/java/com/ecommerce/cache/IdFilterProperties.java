@@ -0,0 +1,56 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 产品ID布隆过滤器配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.id-filter")
+public class IdFilterProperties {
+
+    /** 是否在按ID查询数据库之前用布隆过滤器排除不存在的ID */
+    private boolean enabled = true;
+
+    /** 过滤器按 max(预期产品数, 当前产品数的 2 倍) 分配，预留新建产品的空间 */
+    private long expectedProducts = 100_000;
+
+    /** 目标误判率 */
+    private double falsePositiveRate = 0.01;
+
+    /** 重建间隔；布隆过滤器不能删除元素，重建后已删除的ID不再通过 */
+    private Duration rebuildInterval = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getExpectedProducts() {
+        return expectedProducts;
+    }
+
+    public void setExpectedProducts(long expectedProducts) {
+        this.expectedProducts = expectedProducts;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+}
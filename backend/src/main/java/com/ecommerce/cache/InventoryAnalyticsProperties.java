@@ -0,0 +1,47 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 库存分析配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.inventory-analytics")
+public class InventoryAnalyticsProperties {
+
+    /** 是否在内存中维护价格、库存、分类的列式副本，并提供库存分析接口 */
+    private boolean enabled = true;
+
+    /** 库存大于 0 且小于该值的产品计为低库存，与管理页面的“库存不足”一致 */
+    private int lowStockThreshold = 10;
+
+    /** 价格分布的区间边界（元），升序；n 个边界划分出 n + 1 个区间 */
+    private List<BigDecimal> priceBuckets = List.of(new BigDecimal("10"), new BigDecimal("50"),
+            new BigDecimal("100"), new BigDecimal("500"), new BigDecimal("1000"), new BigDecimal("5000"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public void setLowStockThreshold(int lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    public List<BigDecimal> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(List<BigDecimal> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+}
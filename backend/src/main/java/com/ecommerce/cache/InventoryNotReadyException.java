@@ -0,0 +1,15 @@
+package com.ecommerce.cache;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 库存分析的列式副本尚未加载或已关闭时抛出，映射为 503 Service Unavailable
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "库存分析数据尚未就绪")
+public class InventoryNotReadyException extends RuntimeException {
+
+    public InventoryNotReadyException() {
+        super("库存分析数据尚未就绪");
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.cache;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 库存分析结果
+ *
+ * @param products     产品数
+ * @param units        库存总件数
+ * @param stockValue   库存货值（价格 × 库存之和）
+ * @param lowStock     低库存产品数
+ * @param outOfStock   缺货产品数
+ * @param belowReorder 库存低于补货阈值的产品数
+ * @param priceBuckets 价格分布的区间边界，各分类的 priceHistogram 比它多一个元素
+ * @param categories   各分类的统计，按库存货值从高到低排列
+ */
+public record InventoryReport(long products, long units, BigDecimal stockValue, long lowStock, long outOfStock,
+                              long belowReorder, List<BigDecimal> priceBuckets, List<CategoryInventory> categories) {
+
+    /**
+     * 单个分类的库存统计
+     *
+     * @param category       分类，未分类的产品为 null
+     * @param priceHistogram 价格落在各区间的产品数：第 i 个区间为 [priceBuckets[i-1], priceBuckets[i])
+     */
+    public record CategoryInventory(String category, long products, long units, BigDecimal stockValue,
+                                    long lowStock, long outOfStock, long belowReorder, BigDecimal minPrice, BigDecimal maxPrice,
+                                    BigDecimal averagePrice, long[] priceHistogram) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.ecommerce.cache;
+
+import java.util.Arrays;
+
+/**
+ * long → int 的开放寻址哈希表（线性探测），键和值都保存在基本类型数组中，查找不装箱
+ * 键 0 保留为空槽标记，调用方保证键为正数。非线程安全，由 OffHeapProductStore 加锁访问
+ */
+final class LongIntHashIndex {
+
+    static final int NOT_FOUND = -1;
+
+    private static final long EMPTY = 0L;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / MAX_LOAD)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int get(long key) {
+        if (key == EMPTY) {
+            return NOT_FOUND;
+        }
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                return values[slot];
+            }
+            if (existing == EMPTY) {
+                return NOT_FOUND;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return 原来的值，不存在时返回 NOT_FOUND
+     */
+    int put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("键不能为 0");
+        }
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            if (existing == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > keys.length * MAX_LOAD) {
+                    resize(keys.length << 1);
+                }
+                return NOT_FOUND;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 删除键，之后把同一探测链上的后续条目前移，保持查找不中断（不使用墓碑）
+     * @return 原来的值，不存在时返回 NOT_FOUND
+     */
+    int remove(long key) {
+        if (key == EMPTY) {
+            return NOT_FOUND;
+        }
+        int slot = slot(key);
+        while (true) {
+            long existing = keys[slot];
+            if (existing == EMPTY) {
+                return NOT_FOUND;
+            }
+            if (existing == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int previous = values[slot];
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = slot(keys[next]);
+            // 条目的理想位置不在 (gap, next] 区间内时，可以前移到空位
+            boolean movable = gap <= next ? (home <= gap || home > next) : (home <= gap && home > next);
+            if (movable) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = 0;
+        size--;
+        return previous;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 所有键，按升序排列
+     */
+    long[] sortedKeys() {
+        long[] result = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[i++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private int slot(long key) {
+        // 64 位混合函数，避免连续的自增ID聚集在相邻槽位
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
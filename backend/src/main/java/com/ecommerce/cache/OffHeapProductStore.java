@@ -0,0 +1,277 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 堆外产品存储
+ * 产品按 ProductCodec 编码追加到直接内存缓冲区（每条记录前有 int 长度），
+ * 通过 LongIntHashIndex 从ID定位记录偏移。堆上只保留两个基本类型数组，
+ * 目录规模增大时不会增加 GC 需要扫描的对象数量。
+ *
+ * 更新时追加新记录并改写索引，旧记录成为垃圾；垃圾超过存活数据时整体压缩。
+ * 扩容和压缩会换用新的缓冲区，已取得旧缓冲区的读线程仍可读到完整的记录
+ */
+public class OffHeapProductStore {
+
+    private static final int LENGTH_PREFIX = 4;
+    /** updatedAt 在编码记录中的偏移，见 ProductCodec 的记录布局 */
+    private static final int UPDATED_AT_OFFSET = 8 + 4 + 8 + 1 + 12;
+    private static final int MIN_COMPACT_GARBAGE = 1 << 20;
+
+    private final long maxBytes;
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashIndex index;
+    private ByteBuffer arena;
+    private int garbageBytes;
+    private long version;
+
+    /**
+     * @param initialBytes 初始缓冲区大小
+     * @param maxBytes     缓冲区上限，超过后写入失败
+     */
+    public OffHeapProductStore(int initialBytes, long maxBytes) {
+        this.maxBytes = Math.min(maxBytes, Integer.MAX_VALUE);
+        this.arena = ByteBuffer.allocateDirect(initialBytes);
+        this.index = new LongIntHashIndex(1024);
+    }
+
+    /**
+     * 按ID读取产品，每次调用都会解码出新的产品对象
+     * @return 找到的产品，不存在时返回 null
+     */
+    public Product get(long id) {
+        ByteBuffer buffer;
+        int offset;
+        long stamp = lock.readLock();
+        try {
+            offset = index.get(id);
+            buffer = arena;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return offset == LongIntHashIndex.NOT_FOUND ? null : ProductCodec.decode(buffer, offset + LENGTH_PREFIX);
+    }
+
+    /**
+     * 按ID升序解码所有产品
+     */
+    public List<Product> getAll() {
+        long[] ids;
+        int[] offsets;
+        ByteBuffer buffer;
+        long stamp = lock.readLock();
+        try {
+            ids = index.sortedKeys();
+            offsets = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                offsets[i] = index.get(ids[i]);
+            }
+            buffer = arena;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        List<Product> products = new ArrayList<>(ids.length);
+        for (int offset : offsets) {
+            products.add(ProductCodec.decode(buffer, offset + LENGTH_PREFIX));
+        }
+        return products;
+    }
+
+    /**
+     * 写入产品；已有的记录比新产品更新（updatedAt 更晚）时忽略，
+     * 避免后台刷新读到的旧数据覆盖本实例刚提交的修改。
+     * 数据库中的 updated_at 只精确到秒，本实例写入的实体带有纳秒，因此只比较到秒，同一秒内的以后写入的为准
+     * @return 是否写入
+     * @throws CapacityExceededException 超出 maxBytes
+     */
+    public boolean put(Product product) {
+        int size = ProductCodec.encodedSize(product);
+        long stamp = lock.writeLock();
+        try {
+            int existing = index.get(product.getId());
+            if (existing != LongIntHashIndex.NOT_FOUND && isNewerSecond(existing, product.getUpdatedAt())) {
+                return false;
+            }
+            // 压缩会移动所有记录，旧记录的长度要在 ensureCapacity 之前读取
+            int replaced = existing == LongIntHashIndex.NOT_FOUND ? 0 : LENGTH_PREFIX + arena.getInt(existing);
+            ensureCapacity(LENGTH_PREFIX + size);
+            int offset = arena.position();
+            arena.putInt(size);
+            ProductCodec.encode(product, arena);
+            index.put(product.getId(), offset);
+            garbageBytes += replaced;
+            version++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int existing = index.remove(id);
+            if (existing == LongIntHashIndex.NOT_FOUND) {
+                return false;
+            }
+            garbageBytes += LENGTH_PREFIX + arena.getInt(existing);
+            version++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 删除 updatedAt 早于 before 的产品（updatedAt 为 null 的也删除）
+     * @return 是否删除
+     */
+    public boolean removeIfOlderThan(long id, LocalDateTime before) {
+        long stamp = lock.writeLock();
+        try {
+            int existing = index.get(id);
+            if (existing == LongIntHashIndex.NOT_FOUND || isNewer(existing, before)) {
+                return false;
+            }
+            index.remove(id);
+            garbageBytes += LENGTH_PREFIX + arena.getInt(existing);
+            version++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 修改计数，每次写入或删除产品后加一。
+     * 先取版本再调用 getAll，取到的列表不会比版本旧
+     */
+    public long version() {
+        long stamp = lock.readLock();
+        try {
+            return version;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 所有产品ID，按升序排列
+     */
+    public long[] ids() {
+        long stamp = lock.readLock();
+        try {
+            return index.sortedKeys();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 已使用的堆外字节数（包括尚未压缩的垃圾）
+     */
+    public long usedBytes() {
+        long stamp = lock.readLock();
+        try {
+            return arena.position();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long capacityBytes() {
+        long stamp = lock.readLock();
+        try {
+            return arena.capacity();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 已有记录的 updatedAt 是否晚于 time；time 为 null 时视为已有记录更新
+     */
+    private boolean isNewer(int recordOffset, LocalDateTime time) {
+        if (time == null) {
+            return true;
+        }
+        int at = recordOffset + LENGTH_PREFIX + UPDATED_AT_OFFSET;
+        long seconds = arena.getLong(at);
+        if (seconds == Long.MIN_VALUE) {
+            return false;
+        }
+        long otherSeconds = time.toEpochSecond(ZoneOffset.UTC);
+        return seconds > otherSeconds || (seconds == otherSeconds && arena.getInt(at + 8) > time.getNano());
+    }
+
+    /**
+     * 已有记录的 updatedAt 是否在 time 之后的某一秒；time 为 null 时视为已有记录更新
+     */
+    private boolean isNewerSecond(int recordOffset, LocalDateTime time) {
+        if (time == null) {
+            return true;
+        }
+        long seconds = arena.getLong(recordOffset + LENGTH_PREFIX + UPDATED_AT_OFFSET);
+        return seconds != Long.MIN_VALUE && seconds > time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * 保证还能追加 required 个字节：垃圾较多时先压缩，仍不够再按倍数扩容
+     */
+    private void ensureCapacity(int required) {
+        if (arena.remaining() >= required) {
+            return;
+        }
+        int live = arena.position() - garbageBytes;
+        boolean compact = garbageBytes >= MIN_COMPACT_GARBAGE && garbageBytes > live;
+        long needed = (long) (compact ? live : arena.position()) + required;
+        if (needed > maxBytes) {
+            throw new CapacityExceededException("堆外产品存储超出上限 " + maxBytes + " 字节");
+        }
+        long capacity = arena.capacity();
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        ByteBuffer next = ByteBuffer.allocateDirect((int) Math.min(capacity, maxBytes));
+        if (compact) {
+            for (long id : index.sortedKeys()) {
+                int offset = index.get(id);
+                int length = LENGTH_PREFIX + arena.getInt(offset);
+                index.put(id, next.position());
+                next.put(next.position(), arena, offset, length);
+                next.position(next.position() + length);
+            }
+            garbageBytes = 0;
+        } else {
+            next.put(0, arena, 0, arena.position());
+            next.position(arena.position());
+        }
+        arena = next;
+    }
+
+    /**
+     * 堆外缓冲区达到上限
+     */
+    public static class CapacityExceededException extends RuntimeException {
+
+        public CapacityExceededException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 产品读缓存
+ * 按ID缓存单个产品，另外缓存完整的产品列表，条目在 ecommerce.cache.ttl 后过期。
+ * 本实例的写操作提交后通过 ProductChangedEvent 立即更新缓存，其他实例的写操作由 ProductChangeLog 轮询后失效。
+ *
+ * 从数据库读取与并发的写操作存在竞争：读线程可能在写事务提交前读到旧值、在提交后才放入缓存。
+ * 因此读取前先取得 stamp()，放入时用 putIfFresh 校验期间没有发生过失效，有则放弃缓存。
+ *
+ * 启动时可以挂载目录快照：按ID未命中时先查快照。从开始准备快照（追赶或写入新快照的数据库读取之前）起失效过的产品
+ * 记入快照的排除集合，不再从快照读取，因此快照不需要过期，一直挂载到下一个定期写入的快照替换它
+ */
+@Component
+@EnableConfigurationProperties(CacheProperties.class)
+public class ProductCache {
+
+    private final CacheProperties properties;
+    private final TrendingProducts trending;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    /** 最近失效的产品ID及失效时间，超过 ttl 的在记录过多时清理 */
+    private final ConcurrentHashMap<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private volatile long listInvalidatedAt;
+    /** evictAll 的时间，此后 ttl 内所有产品都视为刚失效；未调用过时为 null */
+    private volatile Long allInvalidatedAt;
+    private volatile ListEntry list;
+
+    private volatile AttachedSnapshot snapshot;
+    private volatile PendingSnapshot pendingSnapshot;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter snapshotHits;
+
+    public ProductCache(CacheProperties properties, TrendingProducts trending, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.trending = trending;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.snapshotHits = requests(meterRegistry, "snapshot");
+        Gauge.builder("product.cache.size", entries, ConcurrentHashMap::size)
+                .description("按ID缓存的产品数")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("product.cache.requests")
+                .description("产品缓存按ID查询次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 当前的失效计数，从数据库读取之前获取，放入缓存时传给 putIfFresh
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * 产品最近 window 内是否失效过（本实例的写操作或 ProductChangeLog 传来的修改）
+     */
+    public boolean invalidatedWithin(Long id, Duration window) {
+        long now = System.nanoTime();
+        Long at = invalidatedAt.get(id);
+        Long all = allInvalidatedAt;
+        return (at != null && now - at < window.toNanos()) || (all != null && now - all < window.toNanos());
+    }
+
+    /**
+     * 产品列表最近 window 内是否失效过，即是否有任何产品失效过
+     */
+    public boolean listInvalidatedWithin(Duration window) {
+        return invalidations.get() > 0 && System.nanoTime() - listInvalidatedAt < window.toNanos();
+    }
+
+    public Optional<Product> get(Long id) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(id);
+        if (entry != null) {
+            if (!isExpired(entry.loadedAt(), now)) {
+                hits.increment();
+                return Optional.of(entry.product());
+            }
+            entries.remove(id, entry);
+        }
+        AttachedSnapshot current = snapshot;
+        if (current != null && !current.excluded().contains(id)) {
+            Product product = current.catalog().find(id);
+            if (product != null) {
+                snapshotHits.increment();
+                return Optional.of(product);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 缓存从数据库读取的产品；如果读取期间发生过失效则放弃
+     */
+    public void putIfFresh(Product product, long stamp) {
+        if (!properties.isEnabled() || product.getId() == null) {
+            return;
+        }
+        Entry entry = new Entry(product, System.nanoTime());
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        entries.put(product.getId(), entry);
+        if (invalidations.get() != stamp) {
+            // 放入的同时发生了失效，撤销本次放入
+            entries.remove(product.getId(), entry);
+            return;
+        }
+        trimToSize();
+    }
+
+    /**
+     * 缓存完整的产品列表
+     */
+    public Optional<List<Product>> getAll() {
+        ListEntry current = list;
+        if (!properties.isEnabled() || current == null || isExpired(current.loadedAt(), System.nanoTime())) {
+            return Optional.empty();
+        }
+        return Optional.of(current.products());
+    }
+
+    public void putAllIfFresh(List<Product> products, long stamp) {
+        if (!properties.isEnabled() || invalidations.get() != stamp) {
+            return;
+        }
+        ListEntry entry = new ListEntry(List.copyOf(products), System.nanoTime());
+        list = entry;
+        if (invalidations.get() != stamp && list == entry) {
+            list = null;
+        }
+    }
+
+    /**
+     * 使单个产品和产品列表失效
+     */
+    public void evict(Long id) {
+        long now = System.nanoTime();
+        invalidatedAt.put(id, now);
+        listInvalidatedAt = now;
+        if (invalidatedAt.size() > properties.getMaxEntries()) {
+            invalidatedAt.values().removeIf(at -> isExpired(at, now));
+        }
+        invalidations.incrementAndGet();
+        // 先记入准备中的快照：挂载时先替换 snapshot 再清除 pendingSnapshot，两者之一一定能记录到
+        PendingSnapshot pending = pendingSnapshot;
+        if (pending != null) {
+            pending.excluded().add(id);
+        }
+        AttachedSnapshot current = snapshot;
+        if (current != null) {
+            current.excluded().add(id);
+        }
+        entries.remove(id);
+        list = null;
+    }
+
+    /**
+     * 使所有条目失效并卸下快照，用于无法确定哪些产品被修改过的情况（见 ProductChangeLog 的空洞超时）
+     */
+    public void evictAll() {
+        long now = System.nanoTime();
+        allInvalidatedAt = now;
+        listInvalidatedAt = now;
+        invalidations.incrementAndGet();
+        detachSnapshot();
+        entries.clear();
+        list = null;
+    }
+
+    /**
+     * 本实例的写事务提交后更新缓存；没有事务时（如测试）直接处理
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.productId());
+        if (event.product() != null && properties.isEnabled()) {
+            entries.put(event.productId(), new Entry(event.product(), System.nanoTime()));
+            trimToSize();
+        }
+    }
+
+    /**
+     * 开始准备快照，在追赶或写入新快照的数据库读取之前调用；此后失效的产品在挂载后不会从快照读取
+     */
+    public void prepareSnapshot() {
+        pendingSnapshot = new PendingSnapshot(ConcurrentHashMap.newKeySet(), invalidations.get());
+    }
+
+    /**
+     * 挂载已追赶完成的快照
+     * @param changed  快照之后新增或修改的产品，不再从快照读取；准备之后没有发生过失效时放入缓存
+     * @param deleted  快照之后已删除的产品ID，不再从快照读取
+     * @param products 由快照和追赶结果合并出的完整产品列表，与 changed 同样放入缓存
+     */
+    public void attachSnapshot(CatalogSnapshot catalogSnapshot, Collection<Product> changed,
+                               Set<Long> deleted, List<Product> products) {
+        PendingSnapshot pending = pendingSnapshot;
+        if (!properties.isEnabled() || pending == null) {
+            return;
+        }
+        pending.excluded().addAll(deleted);
+        for (Product product : changed) {
+            pending.excluded().add(product.getId());
+        }
+        for (Product product : changed) {
+            putIfFresh(product, pending.stamp());
+        }
+        putAllIfFresh(products, pending.stamp());
+        attach(catalogSnapshot, pending);
+    }
+
+    /**
+     * 用定期写入的新快照替换已挂载的快照
+     */
+    public void replaceSnapshot(CatalogSnapshot catalogSnapshot) {
+        PendingSnapshot pending = pendingSnapshot;
+        if (properties.isEnabled() && pending != null) {
+            attach(catalogSnapshot, pending);
+        }
+    }
+
+    private void attach(CatalogSnapshot catalogSnapshot, PendingSnapshot pending) {
+        snapshot = new AttachedSnapshot(catalogSnapshot, pending.excluded());
+        pendingSnapshot = null;
+    }
+
+    /**
+     * 放弃准备中的快照，已挂载的快照保留
+     */
+    public void abandonSnapshot() {
+        pendingSnapshot = null;
+    }
+
+    public void detachSnapshot() {
+        pendingSnapshot = null;
+        snapshot = null;
+    }
+
+    public boolean isSnapshotAttached() {
+        return snapshot != null;
+    }
+
+    private boolean isExpired(long loadedAt, long now) {
+        return now - loadedAt > properties.getTtl().toNanos();
+    }
+
+    /**
+     * 超出容量时移除任意条目，TrendingProducts 的热门产品保留；读缓存只需要限制内存，不需要精确的 LRU
+     */
+    private void trimToSize() {
+        int excess = entries.size() - properties.getMaxEntries();
+        if (excess <= 0) {
+            return;
+        }
+        Iterator<Long> iterator = entries.keySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            if (!trending.isHot(iterator.next())) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private record Entry(Product product, long loadedAt) {
+    }
+
+    private record ListEntry(List<Product> products, long loadedAt) {
+    }
+
+    private record AttachedSnapshot(CatalogSnapshot catalog, Set<Long> excluded) {
+    }
+
+    /**
+     * 准备中的快照：开始准备之后失效的产品ID，以及开始时的 stamp
+     */
+    private record PendingSnapshot(Set<Long> excluded, long stamp) {
+    }
+}
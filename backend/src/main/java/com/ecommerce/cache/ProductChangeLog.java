@@ -0,0 +1,304 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.ProductChange;
+import com.ecommerce.repository.ProductChangeRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * 跨实例缓存一致性
+ * 本实例的每次产品修改在同一个事务中追加一行到 product_changes。各实例每隔 poll-interval
+ * 按 version 游标读取之后的变更，使其他实例修改过的产品在本地缓存中失效、在读模型等内存副本中重新加载，
+ * 新建的产品ID加入 ProductIdFilter。
+ *
+ * version 在插入时分配、提交时才可见，可能乱序出现：游标只推进到连续已处理的 version，
+ * 之后已处理的 version 记在 seen 中。每次轮询读取 seen 中最大的 version 之后的变更，并按主键查找空洞中的 version，
+ * 空洞不会阻塞之后的变更。空洞超过 gap-timeout 仍未出现时游标越过它，同时使本地缓存和读模型整体失效，
+ * 空洞中的 version 在 retention 内出现时仍会处理（长事务晚于 gap-timeout 提交）
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@EnableConfigurationProperties(ChangeLogProperties.class)
+public class ProductChangeLog implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeLog.class);
+
+    private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    private final ChangeLogProperties properties;
+    private final ProductChangeRepository changeRepository;
+    private final ProductCache productCache;
+    private final ProductJsonCache jsonCache;
+    private final ProductReadModel readModel;
+    private final ProductIdFilter idFilter;
+    private final RelatedProductsIndex relatedIndex;
+    private final InventoryColumns inventoryColumns;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TaskScheduler taskScheduler;
+
+    /** 本实例的标识，轮询时跳过本实例写入的变更（提交后已通过 ProductChangedEvent 处理） */
+    private final String origin = UUID.randomUUID().toString();
+
+    /** 不大于 cursor 的 version 都已处理 */
+    private volatile long cursor;
+    private final TreeSet<Long> seen = new TreeSet<>();
+    /** 游标已越过、但尚未出现的 version 及越过的时间 */
+    private final TreeMap<Long, Long> late = new TreeMap<>();
+    private boolean gapOpen;
+    private long gapSince;
+
+    private final Counter applied;
+    private final Timer lag;
+
+    public ProductChangeLog(ChangeLogProperties properties,
+                            ProductChangeRepository changeRepository,
+                            ProductCache productCache,
+                            ProductJsonCache jsonCache,
+                            ProductReadModel readModel,
+                            ProductIdFilter idFilter,
+                            RelatedProductsIndex relatedIndex,
+                            InventoryColumns inventoryColumns,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.changeRepository = changeRepository;
+        this.productCache = productCache;
+        this.jsonCache = jsonCache;
+        this.readModel = readModel;
+        this.idFilter = idFilter;
+        this.relatedIndex = relatedIndex;
+        this.inventoryColumns = inventoryColumns;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.taskScheduler = taskScheduler;
+        this.applied = Counter.builder("product.change.log.applied")
+                .description("已处理的其他实例的产品变更数")
+                .register(meterRegistry);
+        this.lag = Timer.builder("product.change.log.lag")
+                .description("其他实例的变更从写入到本实例处理的延迟")
+                .register(meterRegistry);
+        Gauge.builder("product.change.log.cursor", this, changeLog -> changeLog.cursor)
+                .description("已处理到的变更 version")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在目录快照追赶和读模型加载之前取得游标，加载期间其他实例的修改不会遗漏
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        cursor = readOnlyTransaction.execute(status -> changeRepository.findLatestVersion().orElse(0L));
+        taskScheduler.scheduleWithFixedDelay(this::poll,
+                Instant.now().plus(properties.getPollInterval()), properties.getPollInterval());
+        taskScheduler.scheduleWithFixedDelay(this::cleanup,
+                Instant.now().plus(CLEANUP_INTERVAL), CLEANUP_INTERVAL);
+    }
+
+    /**
+     * 在产品修改的事务提交前写入变更记录；写入失败时整个事务回滚
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(ProductChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        changeRepository.save(new ProductChange(event.productId(), event.type().name(), origin, LocalDateTime.now()));
+    }
+
+    /**
+     * 记录不经过 ProductService 的批量写入（如调价任务、CSV 导入），在调用方的事务中批量插入；
+     * 提交后由调用方调用 invalidate 更新本实例的缓存
+     */
+    public void recordAll(Collection<Long> productIds, ProductChangedEvent.ChangeType type) {
+        if (!properties.isEnabled() || productIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(productIds.size());
+        for (Long id : productIds) {
+            rows.add(new Object[]{id, type.name(), origin, now});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO product_changes (product_id, change_type, origin, changed_at) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    void poll() {
+        try {
+            List<Long> missing = missingVersions();
+            List<ProductChange> changes = readOnlyTransaction.execute(status -> {
+                List<ProductChange> found = new ArrayList<>(changeRepository.findByVersionGreaterThanOrderByVersionAsc(
+                        seen.isEmpty() ? cursor : seen.last(), Limit.of(properties.getBatchSize())));
+                if (!missing.isEmpty()) {
+                    found.addAll(changeRepository.findAllById(missing));
+                }
+                return found;
+            });
+            List<Long> versions = new ArrayList<>();
+            Set<Long> productIds = new LinkedHashSet<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (ProductChange change : changes) {
+                long version = change.getVersion();
+                if (version > cursor ? seen.contains(version) : !late.containsKey(version)) {
+                    continue;
+                }
+                versions.add(version);
+                if (!origin.equals(change.getOrigin())) {
+                    productIds.add(change.getProductId());
+                    if (ProductChangedEvent.ChangeType.CREATED.name().equals(change.getChangeType())) {
+                        idFilter.add(change.getProductId());
+                    }
+                    lag.record(Duration.between(change.getChangedAt(), now));
+                }
+            }
+            if (!productIds.isEmpty()) {
+                invalidate(productIds);
+                applied.increment(productIds.size());
+            }
+            for (Long version : versions) {
+                if (version > cursor) {
+                    seen.add(version);
+                } else {
+                    late.remove(version);
+                }
+            }
+            advanceCursor();
+            expireLate();
+        } catch (RuntimeException e) {
+            log.warn("读取产品变更日志失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 使产品在本地缓存中失效，并在读模型、相似产品索引和库存分析副本中重新加载
+     */
+    public void invalidate(Collection<Long> productIds) {
+        for (Long id : productIds) {
+            productCache.evict(id);
+            jsonCache.evict(id);
+        }
+        readModel.reload(productIds);
+        relatedIndex.reload(productIds);
+        inventoryColumns.reload(productIds);
+    }
+
+    /**
+     * 需要按主键查找的 version：游标和 seen 之间的空洞，以及游标已越过的 version，最多 batch-size 个
+     */
+    private List<Long> missingVersions() {
+        List<Long> missing = new ArrayList<>(late.keySet());
+        if (!seen.isEmpty()) {
+            for (long version = cursor + 1; version < seen.last() && missing.size() < properties.getBatchSize(); version++) {
+                if (!seen.contains(version)) {
+                    missing.add(version);
+                }
+            }
+        }
+        return missing.size() > properties.getBatchSize() ? missing.subList(0, properties.getBatchSize()) : missing;
+    }
+
+    /**
+     * 超过 retention 的变更记录已被清理，不再等待
+     */
+    private void expireLate() {
+        long now = System.nanoTime();
+        late.values().removeIf(skippedAt -> now - skippedAt > properties.getRetention().toNanos());
+    }
+
+    /**
+     * 空洞超时后使本地缓存和内存副本整体失效：空洞中的变更可能已提交但尚未读到，无法确定涉及哪些产品
+     */
+    private void invalidateAll() {
+        productCache.evictAll();
+        jsonCache.evictAll();
+        readModel.refresh();
+        try {
+            idFilter.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("重建产品ID过滤器失败: {}", e.getMessage());
+        }
+    }
+
+    private void advanceCursor() {
+        long previous = cursor;
+        while (!seen.isEmpty() && seen.first() == cursor + 1) {
+            cursor = seen.pollFirst();
+        }
+        if (cursor != previous) {
+            gapOpen = false;
+        }
+        if (seen.isEmpty()) {
+            gapOpen = false;
+            return;
+        }
+        long now = System.nanoTime();
+        if (!gapOpen) {
+            gapOpen = true;
+            gapSince = now;
+        } else if (now - gapSince > properties.getGapTimeout().toNanos()) {
+            log.warn("变更 version {} 到 {} 超过 {} 未出现，游标越过空洞并使本地缓存整体失效",
+                    cursor + 1, seen.first() - 1, properties.getGapTimeout());
+            for (long version = cursor + 1; version < seen.first() && late.size() < properties.getBatchSize(); version++) {
+                late.put(version, now);
+            }
+            cursor = seen.first() - 1;
+            gapOpen = false;
+            invalidateAll();
+            advanceCursor();
+        }
+    }
+
+    private void cleanup() {
+        try {
+            Integer deleted = transaction.execute(status ->
+                    changeRepository.deleteChangedBefore(LocalDateTime.now().minus(properties.getRetention())));
+            if (deleted != null && deleted > 0) {
+                log.debug("已删除 {} 条过期的产品变更记录", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("清理产品变更日志失败: {}", e.getMessage());
+        }
+    }
+
+    long cursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,194 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 产品的紧凑二进制编码，供目录快照等需要脱离 JVM 堆保存产品的场景使用
+ * 记录布局（大端序）：
+ * <pre>
+ * long   id
+ * int    stockQuantity        Integer.MIN_VALUE 表示 null
+ * long   price 非标度值
+ * byte   price 标度            -1 表示 null
+ * long   createdAt 秒 + int 纳秒   秒为 Long.MIN_VALUE 表示 null
+ * long   updatedAt 秒 + int 纳秒
+ * int    reorderThreshold     Integer.MIN_VALUE 表示 null
+ * string name, description, category, imageUrl   int 字节长度（-1 表示 null）+ UTF-8 字节
+ * </pre>
+ */
+public final class ProductCodec {
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int FIXED_SIZE = 8 + 4 + 8 + 1 + 12 + 12 + 4 + 4 * 4;
+
+    private ProductCodec() {
+    }
+
+    /**
+     * 计算产品编码后的字节数
+     */
+    public static int encodedSize(Product product) {
+        return FIXED_SIZE
+                + utf8Length(product.getName())
+                + utf8Length(product.getDescription())
+                + utf8Length(product.getCategory())
+                + utf8Length(product.getImageUrl());
+    }
+
+    /**
+     * 从缓冲区当前位置写入产品，写入后位置前移 encodedSize 个字节
+     */
+    public static void encode(Product product, ByteBuffer buffer) {
+        buffer.putLong(product.getId());
+        buffer.putInt(product.getStockQuantity() == null ? NULL_INT : product.getStockQuantity());
+        putPrice(buffer, product.getPrice());
+        putTime(buffer, product.getCreatedAt());
+        putTime(buffer, product.getUpdatedAt());
+        buffer.putInt(product.getReorderThreshold() == null ? NULL_INT : product.getReorderThreshold());
+        putString(buffer, product.getName());
+        putString(buffer, product.getDescription());
+        putString(buffer, product.getCategory());
+        putString(buffer, product.getImageUrl());
+    }
+
+    /**
+     * 从缓冲区的绝对位置读取产品，不改变缓冲区的位置，可由多个线程并发读取同一缓冲区
+     */
+    public static Product decode(ByteBuffer buffer, int offset) {
+        Cursor cursor = new Cursor(buffer, offset);
+        Product product = new Product();
+        product.setId(cursor.getLong());
+        int stock = cursor.getInt();
+        product.setStockQuantity(stock == NULL_INT ? null : stock);
+        long unscaled = cursor.getLong();
+        byte scale = cursor.getByte();
+        product.setPrice(scale < 0 ? null : BigDecimal.valueOf(unscaled, scale));
+        product.setCreatedAt(cursor.getTime());
+        product.setUpdatedAt(cursor.getTime());
+        int reorderThreshold = cursor.getInt();
+        product.setReorderThreshold(reorderThreshold == NULL_INT ? null : reorderThreshold);
+        product.setName(cursor.getString());
+        product.setDescription(cursor.getString());
+        product.setCategory(cursor.getString());
+        product.setImageUrl(cursor.getString());
+        return product;
+    }
+
+    private static void putPrice(ByteBuffer buffer, BigDecimal price) {
+        if (price == null) {
+            buffer.putLong(0L);
+            buffer.put((byte) -1);
+            return;
+        }
+        BigDecimal normalized = price.scale() < 0 ? price.setScale(0) : price;
+        BigInteger unscaled = normalized.unscaledValue();
+        if (unscaled.bitLength() > 63 || normalized.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("价格超出可编码范围: " + price);
+        }
+        buffer.putLong(unscaled.longValue());
+        buffer.put((byte) normalized.scale());
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time == null) {
+            buffer.putLong(NULL_TIME);
+            buffer.putInt(0);
+            return;
+        }
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * 不分配内存地计算字符串的 UTF-8 字节数（不含长度前缀）
+     */
+    private static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // 不成对的代理字符编码为 '?'
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 基于绝对位置的顺序读取游标
+     */
+    private static final class Cursor {
+
+        private final ByteBuffer buffer;
+        private int position;
+
+        Cursor(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        long getLong() {
+            long value = buffer.getLong(position);
+            position += 8;
+            return value;
+        }
+
+        int getInt() {
+            int value = buffer.getInt(position);
+            position += 4;
+            return value;
+        }
+
+        byte getByte() {
+            return buffer.get(position++);
+        }
+
+        LocalDateTime getTime() {
+            long seconds = getLong();
+            int nanos = getInt();
+            return seconds == NULL_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+
+        String getString() {
+            int length = getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 已存在产品ID的布隆过滤器
+ * 按ID查询数据库之前先检查过滤器，确定不存在的ID直接返回 404，不再访问数据库。
+ * 启动时从数据库构建，创建产品时添加（其他实例创建的产品经 ProductChangeLog 添加），
+ * 遇到大于已知最大ID的请求时从数据库补齐更大的ID，并定期重建以清除已删除的ID。
+ * 过滤器未构建完成时所有ID都会查询数据库
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@EnableConfigurationProperties(IdFilterProperties.class)
+public class ProductIdFilter implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIdFilter.class);
+
+    private final IdFilterProperties properties;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TaskScheduler taskScheduler;
+
+    private volatile BloomFilter filter;
+    /** 重建期间添加的ID同时写入新过滤器 */
+    private volatile BloomFilter building;
+    private final AtomicLong maxId = new AtomicLong();
+    private final ReentrantLock catchingUp = new ReentrantLock();
+
+    private final Counter rejected;
+    private final Counter passed;
+    private final Counter falsePositives;
+
+    public ProductIdFilter(IdFilterProperties properties,
+                           ProductRepository productRepository,
+                           PlatformTransactionManager transactionManager,
+                           TaskScheduler taskScheduler,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.taskScheduler = taskScheduler;
+        this.rejected = requests(meterRegistry, "rejected");
+        this.passed = requests(meterRegistry, "passed");
+        this.falsePositives = requests(meterRegistry, "false_positive");
+        Gauge.builder("product.id.filter.false.positive.rate", this, ProductIdFilter::expectedFalsePositiveRate)
+                .description("按过滤器当前置位比例估算的误判率")
+                .register(meterRegistry);
+        Gauge.builder("product.id.filter.memory", this, ProductIdFilter::sizeInBytes)
+                .description("布隆过滤器占用的内存")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("product.id.filter.requests")
+                .description("产品ID过滤器检查次数；false_positive 为通过过滤器但数据库中不存在的ID")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("构建产品ID过滤器失败，稍后重试: {}", e.getMessage());
+        }
+        taskScheduler.scheduleWithFixedDelay(this::scheduledRebuild,
+                Instant.now().plus(properties.getRebuildInterval()), properties.getRebuildInterval());
+    }
+
+    /**
+     * 该ID是否确定不存在；过滤器未就绪，或ID大于已知最大ID而无法从数据库补齐时返回 false
+     */
+    public boolean isDefinitelyAbsent(Long id) {
+        BloomFilter current = filter;
+        if (current == null || id == null) {
+            return false;
+        }
+        if (!current.mightContain(id) && id > maxId.get()) {
+            // 其他实例刚创建的产品在变更日志同步之前不在过滤器中
+            if (!catchUp()) {
+                passed.increment();
+                return false;
+            }
+            current = filter;
+        }
+        if (current.mightContain(id)) {
+            passed.increment();
+            return false;
+        }
+        rejected.increment();
+        return true;
+    }
+
+    /**
+     * 从数据库读取大于已知最大ID的全部ID加入过滤器
+     * @return 是否已补齐；另一个请求正在读取或读取失败时返回 false，由调用方查询数据库
+     */
+    private boolean catchUp() {
+        if (!catchingUp.tryLock()) {
+            return false;
+        }
+        try {
+            List<Long> ids = readOnlyTransaction.execute(status -> productRepository.findIdsGreaterThan(maxId.get()));
+            ids.forEach(this::add);
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("补齐产品ID失败: {}", e.getMessage());
+            return false;
+        } finally {
+            catchingUp.unlock();
+        }
+    }
+
+    /**
+     * 通过过滤器的ID在数据库中不存在（误判或已删除）
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * 添加ID；先读 building 再读 filter，与 rebuild 中先替换 filter 再清除 building 的顺序配合，不会遗漏
+     */
+    public void add(Long id) {
+        BloomFilter next = building;
+        if (next != null) {
+            next.add(id);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(id);
+        }
+        maxId.accumulateAndGet(id, Math::max);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.CREATED) {
+            add(event.productId());
+        }
+    }
+
+    private void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("重建产品ID过滤器失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 先发布空的新过滤器接收并发添加，再读取全部ID；
+     * 读取之前提交的产品在ID列表中，之后提交的产品经 add 写入
+     */
+    void rebuild() {
+        long count = readOnlyTransaction.execute(status -> productRepository.count());
+        BloomFilter next = new BloomFilter(Math.max(properties.getExpectedProducts(), count * 2),
+                properties.getFalsePositiveRate());
+        building = next;
+        try {
+            List<Long> ids = readOnlyTransaction.execute(status -> productRepository.findAllIds());
+            long max = 0;
+            for (Long id : ids) {
+                next.add(id);
+                max = Math.max(max, id);
+            }
+            maxId.accumulateAndGet(max, Math::max);
+            filter = next;
+            log.debug("产品ID过滤器已重建: {} 个ID, {} KB", ids.size(), next.sizeInBytes() / 1024);
+        } finally {
+            building = null;
+        }
+    }
+
+    private double expectedFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.expectedFalsePositiveRate();
+    }
+
+    private double sizeInBytes() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.sizeInBytes();
+    }
+}
@@ -0,0 +1,237 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.service.ProductChangedEvent;
+import com.ecommerce.service.ProductLookup;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 已序列化的产品 JSON 缓存
+ * 单个产品按 (ID, updatedAt) 缓存，updatedAt 即产品版本：取到的产品版本与缓存不一致时重新序列化，
+ * 因此缓存的新鲜度与 ProductService 返回的数据一致，不需要单独的过期时间。
+ * 产品列表按列表对象本身缓存：ProductCache 在失效前返回同一个列表对象；
+ * 堆外读模型每次解码出新的列表，按读模型的修改计数缓存。
+ * gzip 字节在第一次被请求时生成。写操作提交后（其他实例的写操作经 ProductChangeLog）删除对应条目以释放内存
+ */
+@Component
+public class ProductJsonCache {
+
+    private static final byte[] PRODUCT_FIELD = ",\"product\":".getBytes(StandardCharsets.US_ASCII);
+
+    private final CacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<Long, ProductEntry> products = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private volatile ListEntry list;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProductJsonCache(CacheProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        Gauge.builder("product.json.cache.size", cachedBytes, AtomicLong::get)
+                .description("已缓存的产品 JSON 字节数")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("product.json.cache.requests")
+                .description("产品 JSON 缓存查询次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取得产品的 JSON，版本一致时直接返回缓存的字节
+     */
+    public SerializedJson serialize(Product product) {
+        ProductEntry entry = products.get(product.getId());
+        if (entry != null && Objects.equals(entry.version(), product.getUpdatedAt())) {
+            hits.increment();
+            return entry.json();
+        }
+        misses.increment();
+        SerializedJson json = new SerializedJson(write(product), properties.getJson().getGzipMinSize().toBytes());
+        if (properties.getJson().isEnabled() && product.getId() != null && product.getUpdatedAt() != null) {
+            ProductEntry previous = products.put(product.getId(), new ProductEntry(product.getUpdatedAt(), json));
+            cachedBytes.addAndGet(json.size() - (previous == null ? 0 : previous.json().size()));
+            trimToSize();
+        }
+        return json;
+    }
+
+    /**
+     * 取得产品列表的 JSON，同一个列表对象只序列化一次
+     */
+    public SerializedJson serialize(List<Product> productList) {
+        return serialize(productList, 0, () -> productList);
+    }
+
+    /**
+     * 取得产品列表的 JSON，来源（按对象本身比较）和版本都与缓存一致时不调用 products。
+     * version 要在取列表之前读取，列表可以比版本新，不能比版本旧
+     */
+    public SerializedJson serialize(Object source, long version, Supplier<List<Product>> products) {
+        ListEntry current = list;
+        if (current != null && current.source() == source && current.version() == version) {
+            hits.increment();
+            return current.json();
+        }
+        misses.increment();
+        SerializedJson json = new SerializedJson(write(products.get()), properties.getJson().getGzipMinSize().toBytes());
+        if (properties.getJson().isEnabled()) {
+            list = new ListEntry(source, version, json);
+        }
+        return json;
+    }
+
+    /**
+     * 包装在别处生成的 JSON（如 JDBC 读取通道），只提供 gzip 处理，不缓存
+     */
+    public SerializedJson wrap(byte[] json) {
+        return new SerializedJson(json, properties.getJson().getGzipMinSize().toBytes());
+    }
+
+    /**
+     * 拼接批量查询的 JSON：找到的产品复用按产品缓存的字节，
+     * 格式为 [{"id":1,"found":true,"product":{...}},{"id":2,"found":false}]
+     */
+    public byte[] serializeLookups(List<ProductLookup> lookups) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * Math.max(1, lookups.size()));
+        out.write('[');
+        for (int i = 0; i < lookups.size(); i++) {
+            ProductLookup lookup = lookups.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            String marker = "{\"id\":" + lookup.id() + ",\"found\":" + lookup.found();
+            out.writeBytes(marker.getBytes(StandardCharsets.US_ASCII));
+            if (lookup.found()) {
+                out.writeBytes(PRODUCT_FIELD);
+                out.writeBytes(serialize(lookup.product()).json());
+            }
+            out.write('}');
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(event.productId());
+    }
+
+    /**
+     * 删除单个产品的条目和列表条目
+     */
+    public void evict(Long id) {
+        ProductEntry removed = products.remove(id);
+        if (removed != null) {
+            cachedBytes.addAndGet(-removed.json().size());
+        }
+        list = null;
+    }
+
+    /**
+     * 删除所有条目
+     */
+    public void evictAll() {
+        list = null;
+        products.keySet().forEach(this::evict);
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("产品序列化失败", e);
+        }
+    }
+
+    /**
+     * 超出字节上限时移除任意条目
+     */
+    private void trimToSize() {
+        long maxBytes = properties.getJson().getMaxSize().toBytes();
+        Iterator<ProductEntry> iterator = products.values().iterator();
+        while (cachedBytes.get() > maxBytes && iterator.hasNext()) {
+            ProductEntry entry = iterator.next();
+            iterator.remove();
+            cachedBytes.addAndGet(-entry.json().size());
+        }
+    }
+
+    private record ProductEntry(LocalDateTime version, SerializedJson json) {
+    }
+
+    private record ListEntry(Object source, long version, SerializedJson json) {
+    }
+
+    /**
+     * 序列化后的 JSON 及其按需生成的 gzip 版本
+     */
+    public static final class SerializedJson {
+
+        private final byte[] json;
+        private final int gzipMinSize;
+        private volatile byte[] gzip;
+
+        SerializedJson(byte[] json, long gzipMinSize) {
+            this.json = json;
+            this.gzipMinSize = (int) Math.min(gzipMinSize, Integer.MAX_VALUE);
+        }
+
+        public byte[] json() {
+            return json;
+        }
+
+        /**
+         * 是否值得压缩；过小的响应压缩后几乎不变小，反而多花 CPU
+         */
+        public boolean isCompressible() {
+            return json.length >= gzipMinSize;
+        }
+
+        public byte[] gzip() {
+            byte[] result = gzip;
+            if (result == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    gzipOut.write(json);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                result = out.toByteArray();
+                gzip = result;
+            }
+            return result;
+        }
+
+        int size() {
+            return json.length;
+        }
+    }
+}
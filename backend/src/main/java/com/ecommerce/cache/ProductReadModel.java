@@ -0,0 +1,228 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductRowMapper;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 基于堆外存储的产品读模型（可选，ecommerce.read-model.enabled）
+ * 启动时以 JDBC 流式加载完整目录，之后由本实例的写事务（ProductChangedEvent）即时更新，
+ * 其他实例的修改由 ProductChangeLog 按ID重新加载，并定期从数据库增量同步作为兜底。就绪后 ProductService 的读取全部由它提供，不再访问数据库。
+ * 写入失败（如超出堆外上限）时停用读模型，读取回退到缓存和数据库
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@EnableConfigurationProperties(ReadModelProperties.class)
+public class ProductReadModel implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductReadModel.class);
+
+    private final ReadModelProperties properties;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TaskScheduler taskScheduler;
+    private final MeterRegistry meterRegistry;
+
+    private volatile OffHeapProductStore store;
+    private volatile boolean ready;
+    private volatile LocalDateTime lastSync;
+
+    public ProductReadModel(ReadModelProperties properties,
+                            ProductRepository productRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        store = new OffHeapProductStore((int) properties.getInitialSize().toBytes(), properties.getMaxSize().toBytes());
+        registerMetrics(store);
+        try {
+            long start = System.nanoTime();
+            load();
+            ready = true;
+            log.info("堆外读模型已加载: {} 个产品, 占用 {} KB 堆外内存, 耗时 {} ms",
+                    store.size(), store.usedBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("加载堆外读模型失败，读取回退到缓存和数据库: {}", e.getMessage());
+            return;
+        }
+        taskScheduler.scheduleWithFixedDelay(this::refresh,
+                Instant.now().plus(properties.getRefreshInterval()), properties.getRefreshInterval());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    public List<Product> findAll() {
+        return store.getAll();
+    }
+
+    /**
+     * 读模型的修改计数，未变化时 findAll 的结果相同
+     */
+    public long version() {
+        return store.version();
+    }
+
+    /**
+     * 本实例的写事务提交后立即更新读模型
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        try {
+            if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+                store.remove(event.productId());
+            } else {
+                store.put(event.product());
+            }
+        } catch (RuntimeException e) {
+            disable(e);
+        }
+    }
+
+    /**
+     * 重新加载指定的产品，用于其他实例修改过的产品（见 ProductChangeLog）；
+     * 数据库中已不存在的产品从读模型删除
+     */
+    public void reload(Collection<Long> ids) {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                Set<Long> missing = new HashSet<>(ids);
+                for (Product product : productRepository.findAllById(ids)) {
+                    store.put(product);
+                    missing.remove(product.getId());
+                }
+                for (Long id : missing) {
+                    store.removeIfOlderThan(id, start);
+                }
+            });
+        } catch (OffHeapProductStore.CapacityExceededException e) {
+            disable(e);
+        }
+    }
+
+    private void load() {
+        lastSync = LocalDateTime.now();
+        ProductRowMapper rowMapper = new ProductRowMapper();
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                "SELECT " + ProductRowMapper.COLUMNS + " FROM products", rs -> {
+                    store.put(rowMapper.mapRow(rs, 0));
+                }));
+    }
+
+    /**
+     * 增量同步：重新读取上次同步之后修改过的产品，并删除数据库中已不存在的产品。
+     * 同步开始后本实例新建的产品不在本次读取的ID列表中，按 updatedAt 跳过，不会被误删
+     */
+    void refresh() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime start = LocalDateTime.now();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                for (Product product : productRepository.findByUpdatedAtGreaterThanEqual(
+                        lastSync.minus(properties.getRefreshMargin()))) {
+                    store.put(product);
+                }
+                removeDeleted(start);
+            });
+            lastSync = start;
+        } catch (OffHeapProductStore.CapacityExceededException e) {
+            disable(e);
+        } catch (RuntimeException e) {
+            log.warn("堆外读模型同步失败，下次重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按ID顺序同时遍历数据库和读模型的ID，删除数据库中已不存在的产品，不在堆上建立完整的ID集合
+     */
+    private void removeDeleted(LocalDateTime start) {
+        long[] storedIds = store.ids();
+        int[] next = {0};
+        jdbcTemplate.query("SELECT id FROM products ORDER BY id", rs -> {
+            long id = rs.getLong(1);
+            while (next[0] < storedIds.length && storedIds[next[0]] < id) {
+                store.removeIfOlderThan(storedIds[next[0]++], start);
+            }
+            if (next[0] < storedIds.length && storedIds[next[0]] == id) {
+                next[0]++;
+            }
+        });
+        for (int i = next[0]; i < storedIds.length; i++) {
+            store.removeIfOlderThan(storedIds[i], start);
+        }
+    }
+
+    private void disable(RuntimeException cause) {
+        ready = false;
+        log.error("堆外读模型已停用，读取回退到缓存和数据库: {}", cause.getMessage());
+    }
+
+    private void registerMetrics(OffHeapProductStore offHeapStore) {
+        Gauge.builder("product.read.model.products", offHeapStore, OffHeapProductStore::size)
+                .description("堆外读模型中的产品数")
+                .register(meterRegistry);
+        Gauge.builder("product.read.model.memory", offHeapStore, OffHeapProductStore::usedBytes)
+                .description("堆外读模型已使用的直接内存")
+                .tag("kind", "used")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("product.read.model.memory", offHeapStore, OffHeapProductStore::capacityBytes)
+                .description("堆外读模型已分配的直接内存")
+                .tag("kind", "capacity")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 堆外读模型配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.read-model")
+public class ReadModelProperties {
+
+    /** 是否把完整目录加载到堆外存储，并由其直接提供产品读取 */
+    private boolean enabled = false;
+
+    /** 堆外缓冲区的初始大小 */
+    private DataSize initialSize = DataSize.ofMegabytes(16);
+
+    /** 堆外缓冲区的上限，需小于 JVM 的 -XX:MaxDirectMemorySize */
+    private DataSize maxSize = DataSize.ofMegabytes(256);
+
+    /** 从数据库增量同步其他实例所做修改的间隔 */
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    /** 增量同步时在上次同步时间之前多回看的时间，用于容忍实例间的时钟偏差 */
+    private Duration refreshMargin = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getInitialSize() {
+        return initialSize;
+    }
+
+    public void setInitialSize(DataSize initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getRefreshMargin() {
+        return refreshMargin;
+    }
+
+    public void setRefreshMargin(Duration refreshMargin) {
+        this.refreshMargin = refreshMargin;
+    }
+}
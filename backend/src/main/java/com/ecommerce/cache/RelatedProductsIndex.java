@@ -0,0 +1,244 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 相似产品索引：同一分类中价格最接近的有货产品
+ * 每个分类一个按（价格，ID）排序的跳表，只包含有货的产品；查询时从当前产品的位置向两侧展开，
+ * 复杂度为 O(log n + limit)，不访问数据库。
+ * 启动时从数据库加载，本实例的写操作提交后通过 ProductChangedEvent 更新，
+ * 其他实例和批量任务的写操作经 ProductChangeLog.invalidate 重新加载对应产品
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+@EnableConfigurationProperties(RelatedProductsProperties.class)
+public class RelatedProductsIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatedProductsIndex.class);
+
+    /** 跳表中的一个产品，价格以分为单位 */
+    private record PricePoint(long cents, long id) implements Comparable<PricePoint> {
+
+        @Override
+        public int compareTo(PricePoint other) {
+            int byPrice = Long.compare(cents, other.cents);
+            return byPrice != 0 ? byPrice : Long.compare(id, other.id);
+        }
+    }
+
+    /** 产品在索引中的位置；缺货的产品也记录，以便查询它的相似产品 */
+    private record Position(String category, PricePoint point, boolean inStock) {
+    }
+
+    private final RelatedProductsProperties properties;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ConcurrentHashMap<Long, Position> positions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<PricePoint>> categories = new ConcurrentHashMap<>();
+    private final AtomicLong indexed = new AtomicLong();
+
+    /** 加载完成前变更过的产品，加载时跳过数据库中读到的旧值 */
+    private final Set<Long> changedDuringLoad = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public RelatedProductsIndex(RelatedProductsProperties properties,
+                                ProductRepository productRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        Gauge.builder("product.related.index.size", indexed, AtomicLong::get)
+                .description("相似产品索引中的有货产品数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            load();
+            ready = true;
+            changedDuringLoad.clear();
+            log.info("相似产品索引加载完成: {} 个产品, {} 个分类, 耗时 {} ms",
+                    positions.size(), categories.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("加载相似产品索引失败，相似产品接口返回空列表: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 同一分类中价格最接近的有货产品，不含产品本身；价格差相同时较便宜的在前
+     * @return 按价格差从小到大排列的产品ID；索引未就绪或产品不在索引中时为空
+     */
+    public Optional<List<Long>> related(Long id, int limit) {
+        Position position = ready ? positions.get(id) : null;
+        if (position == null) {
+            return Optional.empty();
+        }
+        NavigableSet<PricePoint> points = position.category() == null ? null : categories.get(position.category());
+        if (points == null) {
+            return Optional.of(List.of());
+        }
+        Iterator<PricePoint> cheaper = points.headSet(position.point(), false).descendingIterator();
+        Iterator<PricePoint> dearer = points.tailSet(position.point(), false).iterator();
+        PricePoint below = cheaper.hasNext() ? cheaper.next() : null;
+        PricePoint above = dearer.hasNext() ? dearer.next() : null;
+        long cents = position.point().cents();
+        List<Long> ids = new ArrayList<>(limit);
+        while (ids.size() < limit && (below != null || above != null)) {
+            if (above == null || (below != null && cents - below.cents() <= above.cents() - cents)) {
+                ids.add(below.id());
+                below = cheaper.hasNext() ? cheaper.next() : null;
+            } else {
+                ids.add(above.id());
+                above = dearer.hasNext() ? dearer.next() : null;
+            }
+        }
+        return Optional.of(ids);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            remove(event.productId());
+        } else if (event.product() != null) {
+            put(event.product());
+        }
+    }
+
+    /**
+     * 从数据库重新读取产品；不存在的从索引中移除
+     */
+    public void reload(Collection<Long> ids) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            Set<Long> missing = new HashSet<>(ids);
+            for (Product product : productRepository.findAllById(ids)) {
+                put(product);
+                missing.remove(product.getId());
+            }
+            missing.forEach(this::remove);
+        });
+    }
+
+    void put(Product product) {
+        if (!properties.isEnabled() || product.getId() == null || product.getPrice() == null) {
+            return;
+        }
+        if (!ready) {
+            changedDuringLoad.add(product.getId());
+        }
+        index(product.getId(), product.getCategory(), product.getPrice(),
+                product.getStockQuantity() != null && product.getStockQuantity() > 0);
+    }
+
+    void remove(Long id) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!ready) {
+            changedDuringLoad.add(id);
+        }
+        positions.computeIfPresent(id, (key, old) -> {
+            unlink(old);
+            return null;
+        });
+    }
+
+    private void load() {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                "SELECT id, category, price, stock_quantity FROM products", rs -> {
+                    long id = rs.getLong("id");
+                    if (!changedDuringLoad.contains(id)) {
+                        loadRow(id, rs.getString("category"), rs.getBigDecimal("price"),
+                                rs.getInt("stock_quantity") > 0);
+                    }
+                }));
+    }
+
+    /**
+     * 加载时在同一个键的锁内再检查一次，加载期间到达的变更不会被数据库中读到的旧值覆盖
+     */
+    private void loadRow(long id, String category, BigDecimal price, boolean inStock) {
+        positions.compute(id, (key, old) -> {
+            if (changedDuringLoad.contains(id)) {
+                return old;
+            }
+            return relink(old, id, category, price, inStock);
+        });
+    }
+
+    /**
+     * 同一产品的更新在 ConcurrentHashMap 的键锁内串行执行，旧位置移除和新位置插入不会交错
+     */
+    private void index(long id, String category, BigDecimal price, boolean inStock) {
+        positions.compute(id, (key, old) -> relink(old, id, category, price, inStock));
+    }
+
+    private Position relink(Position old, long id, String category, BigDecimal price, boolean inStock) {
+        if (old != null) {
+            unlink(old);
+        }
+        long cents = price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        Position position = new Position(category, new PricePoint(cents, id), inStock);
+        if (inStock && category != null) {
+            categories.computeIfAbsent(category, c -> new ConcurrentSkipListSet<>()).add(position.point());
+            indexed.incrementAndGet();
+        }
+        return position;
+    }
+
+    private void unlink(Position position) {
+        if (position.inStock() && position.category() != null) {
+            ConcurrentSkipListSet<PricePoint> points = categories.get(position.category());
+            if (points != null && points.remove(position.point())) {
+                indexed.decrementAndGet();
+            }
+        }
+    }
+}
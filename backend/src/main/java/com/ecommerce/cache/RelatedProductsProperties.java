@@ -0,0 +1,21 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 相似产品索引配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.related")
+public class RelatedProductsProperties {
+
+    /** 是否在内存中维护按分类、价格排序的索引；关闭后相似产品接口返回空列表 */
+    private boolean enabled = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
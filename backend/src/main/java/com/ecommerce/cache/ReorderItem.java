@@ -0,0 +1,9 @@
+package com.ecommerce.cache;
+
+/**
+ * 库存低于补货阈值的产品
+ *
+ * @param category 分类，未分类的产品为 null
+ */
+public record ReorderItem(long productId, String category, int stockQuantity, int reorderThreshold) {
+}
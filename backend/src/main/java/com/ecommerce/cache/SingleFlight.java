@@ -0,0 +1,97 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.lifecycle.Deadline;
+import com.ecommerce.lifecycle.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 并发加载合并（single-flight）
+ * 同一个键同时只执行一次加载：第一个调用方执行加载，其余调用方等待并共享结果（或异常）。
+ * 用于缓存失效后大量并发请求同时未命中的情况，避免对数据库发出重复的查询。
+ * 加载在第一个调用方的截止时间内执行；因它的截止时间而失败时，截止时间未到的等待方重新加载
+ */
+@Component
+public class SingleFlight {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> loads = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalesced = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 执行或加入同一键上正在进行的加载
+     * @param kind   加载的类别，用作指标标签，如 product、product-list
+     * @param key    类别内的键；需要区分数据版本时应包含版本（如缓存的 stamp）
+     * @param loader 实际的加载逻辑
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String kind, Object key, Supplier<V> loader) {
+        FlightKey flightKey = new FlightKey(kind, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            counter(coalesced, "singleflight.coalesced", "合并到进行中加载的请求数", kind).increment();
+            try {
+                return (V) await(existing);
+            } catch (DeadlineExceededException e) {
+                Deadline.checkCurrent();
+                return execute(kind, key, loader);
+            }
+        }
+        counter(loads, "singleflight.loads", "实际执行的加载次数", kind).increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            RuntimeException translated = Deadline.translate(e);
+            flight.completeExceptionally(translated);
+            throw translated;
+        } catch (Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String description, String kind) {
+        Counter counter = counters.get(kind);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(kind, k -> Counter.builder(name)
+                    .description(description)
+                    .tag("kind", k)
+                    .register(meterRegistry));
+        }
+        return counter;
+    }
+
+    private record FlightKey(String kind, Object key) {
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 目录快照配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.snapshot")
+public class SnapshotProperties {
+
+    /** 是否定期写入快照并在启动时加载 */
+    private boolean enabled = true;
+
+    /** 快照文件路径，所在目录需要可写 */
+    private Path path = Path.of("/tmp/ecommerce/catalog.snapshot");
+
+    /** 写入快照的间隔；目录未变化时跳过写入 */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * 追赶变更时在水位线之前多回看的时间。updatedAt 由各实例的时钟生成，
+     * 回看一段时间可以容忍实例间的时钟偏差
+     */
+    private Duration catchUpMargin = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public void setPath(Path path) {
+        this.path = path;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration getCatchUpMargin() {
+        return catchUpMargin;
+    }
+
+    public void setCatchUpMargin(Duration catchUpMargin) {
+        this.catchUpMargin = catchUpMargin;
+    }
+}
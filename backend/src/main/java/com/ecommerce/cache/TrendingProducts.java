@@ -0,0 +1,205 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 本实例的热门产品统计，不写数据库
+ * 每次按ID查询到产品时在 count-min sketch 中计数，估计值达到当前第 K 名的产品进入候选集；
+ * 候选集超过 2K 时用小顶堆选出前 K 名，其余移出。计数路径只有原子自增和 ConcurrentHashMap 写入，
+ * 选出前 K 名由抢到锁的一个线程完成，其他线程不等待。
+ * 所有计数每个半衰期减半，热度反映最近的访问。前 K 名在缓存按数量淘汰时保留。
+ * 就绪前的预热请求不反映真实访问，就绪时清空统计
+ */
+@Component
+@EnableConfigurationProperties(TrendingProperties.class)
+public class TrendingProducts implements ApplicationRunner {
+
+    private static final Duration METRICS_INTERVAL = Duration.ofSeconds(30);
+
+    /**
+     * 热门产品及其衰减后的估计访问次数
+     */
+    public record HotProduct(long productId, long views) {
+    }
+
+    private final TrendingProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final CountMinSketch sketch;
+    private final ConcurrentHashMap<Long, Long> candidates = new ConcurrentHashMap<>();
+    private final ReentrantLock selectLock = new ReentrantLock();
+    private final MultiGauge topViews;
+
+    /** 进入候选集所需的估计值，即上次选出的第 K 名的计数 */
+    private volatile long admissionThreshold;
+    private volatile List<HotProduct> top = List.of();
+    private volatile Set<Long> hotIds = Set.of();
+
+    public TrendingProducts(TrendingProperties properties,
+                            TaskScheduler taskScheduler,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.sketch = new CountMinSketch(properties.getSketchWidth(), properties.getSketchDepth());
+        this.topViews = MultiGauge.builder("product.trending.views")
+                .description("热门产品衰减后的估计访问次数，按名次导出前 metrics-top-n 名")
+                .register(meterRegistry);
+        Gauge.builder("product.trending.memory", sketch, CountMinSketch::sizeInBytes)
+                .description("热门产品统计的 count-min sketch 占用的内存")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        taskScheduler.scheduleWithFixedDelay(this::decay,
+                Instant.now().plus(properties.getHalfLife()), properties.getHalfLife());
+        taskScheduler.scheduleWithFixedDelay(this::refreshMetrics,
+                Instant.now().plus(METRICS_INTERVAL), METRICS_INTERVAL);
+    }
+
+    /**
+     * 记录一次访问
+     */
+    public void recordView(Long productId) {
+        if (!properties.isEnabled() || productId == null) {
+            return;
+        }
+        long estimate = sketch.add(productId);
+        if (estimate < admissionThreshold && !candidates.containsKey(productId)) {
+            return;
+        }
+        candidates.put(productId, estimate);
+        if (candidates.size() > properties.getTopK() * 2 && selectLock.tryLock()) {
+            try {
+                select();
+            } finally {
+                selectLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 按估计访问次数从高到低返回最多 limit 个热门产品
+     */
+    public List<HotProduct> top(int limit) {
+        selectLock.lock();
+        try {
+            select();
+        } finally {
+            selectLock.unlock();
+        }
+        List<HotProduct> current = top;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    /**
+     * 是否在上次选出的前 K 名中
+     */
+    public boolean isHot(Long productId) {
+        return hotIds.contains(productId);
+    }
+
+    /**
+     * 清空预热期间的计数
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reset() {
+        selectLock.lock();
+        try {
+            sketch.clear();
+            candidates.clear();
+            select();
+        } finally {
+            selectLock.unlock();
+        }
+    }
+
+    /**
+     * 删除的产品不再出现在热门列表中
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() == ProductChangedEvent.ChangeType.DELETED) {
+            candidates.remove(event.productId());
+        }
+    }
+
+    /**
+     * 所有计数减半
+     */
+    void decay() {
+        sketch.decay();
+        selectLock.lock();
+        try {
+            candidates.replaceAll((id, count) -> count >>> 1);
+            candidates.values().removeIf(count -> count == 0);
+            select();
+        } finally {
+            selectLock.unlock();
+        }
+    }
+
+    /**
+     * 按名次导出前 metrics-top-n 名；产品ID作为标签，序列数不超过 metrics-top-n
+     */
+    private void refreshMetrics() {
+        List<HotProduct> current = top(properties.getMetricsTopN());
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        for (int rank = 0; rank < current.size(); rank++) {
+            HotProduct product = current.get(rank);
+            rows.add(MultiGauge.Row.of(Tags.of("rank", Integer.toString(rank + 1),
+                    "product_id", Long.toString(product.productId())), product.views()));
+        }
+        topViews.register(rows, true);
+    }
+
+    /**
+     * 用大小为 K 的小顶堆从候选集中选出前 K 名，移出其余候选；调用方持有 selectLock
+     */
+    private void select() {
+        int k = properties.getTopK();
+        PriorityQueue<Map.Entry<Long, Long>> heap = new PriorityQueue<>(k + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Long> entry : candidates.entrySet()) {
+            heap.offer(Map.entry(entry.getKey(), entry.getValue()));
+            if (heap.size() > k) {
+                Map.Entry<Long, Long> dropped = heap.poll();
+                candidates.remove(dropped.getKey(), dropped.getValue());
+            }
+        }
+        admissionThreshold = heap.size() < k || heap.isEmpty() ? 0 : heap.peek().getValue();
+        List<HotProduct> selected = heap.stream()
+                .map(entry -> new HotProduct(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(HotProduct::views).reversed()
+                        .thenComparingLong(HotProduct::productId))
+                .toList();
+        top = selected;
+        hotIds = selected.stream().map(HotProduct::productId).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 热门产品统计配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.trending")
+public class TrendingProperties {
+
+    /** 是否在按ID查询产品时统计访问次数 */
+    private boolean enabled = true;
+
+    /** 保留的热门产品数；这些产品在缓存按数量淘汰时保留 */
+    private int topK = 100;
+
+    /** count-min sketch 每行的计数器数 */
+    private int sketchWidth = 4096;
+
+    /** count-min sketch 的行数 */
+    private int sketchDepth = 4;
+
+    /** 半衰期：每隔这段时间所有计数减半，较早的访问逐渐失去权重 */
+    private Duration halfLife = Duration.ofMinutes(5);
+
+    /** 作为指标导出的热门产品数 */
+    private int metricsTopN = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public int getSketchWidth() {
+        return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+        this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+        return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+        this.sketchDepth = sketchDepth;
+    }
+
+    public Duration getHalfLife() {
+        return halfLife;
+    }
+
+    public void setHalfLife(Duration halfLife) {
+        this.halfLife = halfLife;
+    }
+
+    public int getMetricsTopN() {
+        return metricsTopN;
+    }
+
+    public void setMetricsTopN(int metricsTopN) {
+        this.metricsTopN = metricsTopN;
+    }
+}
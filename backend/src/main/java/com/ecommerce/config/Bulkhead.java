@@ -0,0 +1,88 @@
+package com.ecommerce.config;
+
+import com.ecommerce.lifecycle.Deadline;
+import com.ecommerce.lifecycle.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 隔离舱：将一类请求限定在独立的有界线程池中执行
+ * 线程和队列都满时立即拒绝，而不是占用其他请求的资源。
+ * 提交线程上的请求截止时间带到执行线程；在队列中等到截止时间已过的任务不再执行。
+ * 执行后台任务的隔离舱（导入）不带截止时间，任务不受提交它的请求的超时影响
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolTaskExecutor executor;
+    private final boolean propagateDeadline;
+    private final Counter rejected;
+    private final Counter deadlineExceeded;
+
+    public Bulkhead(String name, ThreadPoolTaskExecutor executor, MeterRegistry meterRegistry) {
+        this(name, executor, meterRegistry, true);
+    }
+
+    /**
+     * @param propagateDeadline 是否把提交线程上的请求截止时间带到执行线程
+     */
+    public Bulkhead(String name, ThreadPoolTaskExecutor executor, MeterRegistry meterRegistry,
+                    boolean propagateDeadline) {
+        this.name = name;
+        this.executor = executor;
+        this.propagateDeadline = propagateDeadline;
+        this.rejected = Counter.builder("bulkhead.rejected")
+                .description("因隔离舱已满而被拒绝的请求数")
+                .tag("compartment", name)
+                .register(meterRegistry);
+        this.deadlineExceeded = Counter.builder("bulkhead.deadline.exceeded")
+                .description("截止时间已过、在队列中被放弃或执行中被取消的请求数")
+                .tag("compartment", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 在本隔离舱的线程池中异步执行任务
+     * @param task 要执行的任务
+     * @return 任务结果
+     * @throws BulkheadFullException 如果线程和队列均已满
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        Deadline deadline = propagateDeadline ? Deadline.current() : null;
+        try {
+            return CompletableFuture.supplyAsync(deadline == null ? task : () -> runWithin(deadline, task), executor);
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+    }
+
+    private <T> T runWithin(Deadline deadline, Supplier<T> task) {
+        try (Deadline.Scope ignored = deadline.attach()) {
+            Deadline.checkCurrent();
+            return task.get();
+        } catch (DeadlineExceededException e) {
+            deadlineExceeded.increment();
+            throw e;
+        } catch (RuntimeException e) {
+            if (deadline.isExpired()) {
+                deadlineExceeded.increment();
+                throw new DeadlineExceededException(e);
+            }
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ThreadPoolTaskExecutor getExecutor() {
+        return executor;
+    }
+}
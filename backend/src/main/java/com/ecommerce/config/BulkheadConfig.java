@@ -0,0 +1,61 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 读写隔离舱的线程池配置
+ * 线程池指标由 Spring Boot 以 executor.* 名称（name=Bean名称）自动导出
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    /**
+     * 自定义线程池会使 Spring Boot 默认的 applicationTaskExecutor 失效，这里显式恢复，
+     * 供 JPA 延迟初始化（bootstrap-mode: deferred）等框架功能使用
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor productReadExecutor(BulkheadProperties properties) {
+        return executor("product-read-", properties.getRead());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor productWriteExecutor(BulkheadProperties properties) {
+        return executor("product-write-", properties.getWrite());
+    }
+
+    @Bean
+    public Bulkhead readBulkhead(@Qualifier("productReadExecutor") ThreadPoolTaskExecutor executor,
+                                 MeterRegistry meterRegistry) {
+        return new Bulkhead("read", executor, meterRegistry);
+    }
+
+    @Bean
+    public Bulkhead writeBulkhead(@Qualifier("productWriteExecutor") ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry) {
+        return new Bulkhead("write", executor, meterRegistry);
+    }
+
+    private ThreadPoolTaskExecutor executor(String threadNamePrefix, BulkheadProperties.Compartment compartment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(compartment.getThreads());
+        executor.setMaxPoolSize(compartment.getThreads());
+        executor.setQueueCapacity(compartment.getQueueCapacity());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 隔离舱已满时抛出，映射为 503 Service Unavailable
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "服务繁忙，请稍后重试")
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String compartment) {
+        super("隔离舱已满: " + compartment);
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 读写隔离舱配置
+ * 读（店面查询）和写（后台管理）各自拥有独立的线程池、队列上限和数据库连接池
+ */
+@ConfigurationProperties(prefix = "ecommerce.bulkhead")
+public class BulkheadProperties {
+
+    private Compartment read = new Compartment(16, 200, 8, 4);
+
+    private Compartment write = new Compartment(4, 50, 4, 1);
+
+    public Compartment getRead() {
+        return read;
+    }
+
+    public void setRead(Compartment read) {
+        this.read = read;
+    }
+
+    public Compartment getWrite() {
+        return write;
+    }
+
+    public void setWrite(Compartment write) {
+        this.write = write;
+    }
+
+    /**
+     * 单个隔离舱的容量设置
+     */
+    public static class Compartment {
+
+        /** 执行线程数 */
+        private int threads;
+
+        /** 等待队列上限，超出后请求被立即拒绝（503） */
+        private int queueCapacity;
+
+        /** 数据库连接池最大连接数 */
+        private int poolSize;
+
+        /** 数据库连接池最小空闲连接数 */
+        private int minIdle;
+
+        public Compartment() {
+        }
+
+        public Compartment(int threads, int queueCapacity, int poolSize, int minIdle) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.poolSize = poolSize;
+            this.minIdle = minIdle;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.ecommerce.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读写分离的数据库连接池配置
+ * 两个连接池共享 spring.datasource 的连接信息和 spring.datasource.hikari 的通用设置，
+ * 池大小分别由 ecommerce.bulkhead.read / write 决定，写操作突发不会耗尽读连接。
+ * 启用对冲读取时，ecommerce.hedging.replicas 中的每个只读副本另有一个连接池
+ */
+@Configuration
+@EnableConfigurationProperties(HedgingProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariConfig sharedHikariConfig() {
+        return new HikariConfig();
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(DataSourceProperties dataSourceProperties,
+                                           HikariConfig sharedHikariConfig,
+                                           BulkheadProperties bulkheadProperties) {
+        return pool("read-pool", dataSourceProperties, sharedHikariConfig, bulkheadProperties.getRead());
+    }
+
+    @Bean
+    public HikariDataSource writeDataSource(DataSourceProperties dataSourceProperties,
+                                            HikariConfig sharedHikariConfig,
+                                            BulkheadProperties bulkheadProperties) {
+        return pool("write-pool", dataSourceProperties, sharedHikariConfig, bulkheadProperties.getWrite());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("readDataSource") DataSource readDataSource,
+                                 @Qualifier("writeDataSource") DataSource writeDataSource) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource();
+        routingDataSource.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.READ, readDataSource,
+                ReadWriteRoutingDataSource.Route.WRITE, writeDataSource));
+        routingDataSource.setDefaultTargetDataSource(writeDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * 只读副本的连接池；未启用对冲读取时不创建
+     */
+    @Bean
+    public HedgedReads hedgedReads(HedgingProperties hedgingProperties,
+                                   DataSourceProperties dataSourceProperties,
+                                   HikariConfig sharedHikariConfig,
+                                   MeterRegistry meterRegistry) {
+        List<DataSource> replicas = new ArrayList<>();
+        if (hedgingProperties.isEnabled()) {
+            for (HedgingProperties.Replica replica : hedgingProperties.getReplicas()) {
+                HikariDataSource dataSource = pool("replica-pool-" + replicas.size(), dataSourceProperties,
+                        sharedHikariConfig, hedgingProperties.getPoolSize(), 0);
+                dataSource.setJdbcUrl(replica.getUrl());
+                if (replica.getUsername() != null) {
+                    dataSource.setUsername(replica.getUsername());
+                }
+                if (replica.getPassword() != null) {
+                    dataSource.setPassword(replica.getPassword());
+                }
+                dataSource.setReadOnly(true);
+                replicas.add(dataSource);
+            }
+        }
+        return new HedgedReads(hedgingProperties, replicas, meterRegistry);
+    }
+
+    private HikariDataSource pool(String poolName,
+                                  DataSourceProperties dataSourceProperties,
+                                  HikariConfig sharedHikariConfig,
+                                  BulkheadProperties.Compartment compartment) {
+        return pool(poolName, dataSourceProperties, sharedHikariConfig, compartment.getPoolSize(), compartment.getMinIdle());
+    }
+
+    private HikariDataSource pool(String poolName,
+                                  DataSourceProperties dataSourceProperties,
+                                  HikariConfig sharedHikariConfig,
+                                  int poolSize,
+                                  int minIdle) {
+        // 使用无参构造，连接池在首次获取连接时才启动
+        HikariDataSource dataSource = new HikariDataSource();
+        sharedHikariConfig.copyStateTo(dataSource);
+        dataSource.setJdbcUrl(dataSourceProperties.determineUrl());
+        dataSource.setUsername(dataSourceProperties.determineUsername());
+        dataSource.setPassword(dataSourceProperties.determinePassword());
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(minIdle);
+        return dataSource;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.config;
+
+import com.ecommerce.lifecycle.Deadline;
+import com.ecommerce.lifecycle.DeadlineExceededException;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * 以请求的剩余时间作为事务超时
+ * 事务超时由 Spring 应用为 JPA 查询的 jakarta.persistence.query.timeout 和 JdbcTemplate 语句的查询超时，
+ * 截止时间到达时数据库取消查询、事务回滚、连接立即归还连接池。
+ * JDBC 的查询超时以秒为单位，剩余时间向上取整；截止时间已过时不再开始事务
+ */
+public class DeadlineAwareTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return timeout;
+        }
+        long remainingMillis = deadline.remainingMillis();
+        if (remainingMillis <= 0) {
+            throw new DeadlineExceededException();
+        }
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+}
@@ -0,0 +1,345 @@
+package com.ecommerce.config;
+
+import com.ecommerce.lifecycle.Deadline;
+import com.ecommerce.lifecycle.DeadlineExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 对冲读取：幂等的只读查询先发往一个只读副本，超过这类查询最近耗时的 percentile 分位数仍未返回
+ * （或已失败）时，向另一个副本发出相同的查询，取先成功的结果并取消另一个（Statement.cancel）。
+ * 单个副本因 GC、checkpoint、备份等短暂变慢时，尾部延迟由另一个副本决定。
+ *
+ * 对冲受预算限制：每次读取积累 max-hedge-ratio 个，最多累积 burst 个，每次对冲消耗一个；
+ * 预算耗尽时只等待首选副本。查询在 hedge 隔离舱中执行，带有请求的截止时间，JDBC 查询超时取剩余时间。
+ * 副本查询不在 Spring 事务中，每条语句自动提交
+ */
+public class HedgedReads implements DisposableBean {
+
+    /** 一次对冲消耗的预算单位 */
+    private static final long HEDGE_COST = 1_000_000;
+    /** 每类查询保留的最近耗时样本数 */
+    private static final int WINDOW = 1024;
+    /** 样本达到这个数之前使用 initial-delay */
+    private static final int MIN_SAMPLES = 100;
+    /** 每记录这么多个样本重新计算一次对冲等待时间 */
+    private static final int RECOMPUTE_EVERY = 64;
+
+    /** 正在执行查询的尝试，由副本的 JdbcTemplate 登记语句 */
+    private static final ThreadLocal<Attempt<?>> CURRENT_ATTEMPT = new ThreadLocal<>();
+
+    private final HedgingProperties properties;
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> replicas;
+    private final Bulkhead bulkhead;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong budget;
+    private final long deposit;
+    private final long budgetCap;
+    private final ConcurrentHashMap<String, QueryStats> stats = new ConcurrentHashMap<>();
+
+    public HedgedReads(HedgingProperties properties, List<DataSource> dataSources, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSources = List.copyOf(dataSources);
+        this.replicas = this.dataSources.stream().<JdbcTemplate>map(ReplicaJdbcTemplate::new).toList();
+        this.meterRegistry = meterRegistry;
+        this.deposit = Math.round(properties.getMaxHedgeRatio() * HEDGE_COST);
+        this.budgetCap = properties.getBurst() * HEDGE_COST;
+        this.budget = new AtomicLong(budgetCap);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("replica-read-");
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.initialize();
+        this.bulkhead = new Bulkhead("hedge", executor, meterRegistry);
+    }
+
+    /**
+     * 已启用且至少有两个副本
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled() && replicas.size() >= 2;
+    }
+
+    /**
+     * 副本复制延迟的上限，见 ecommerce.hedging.max-replica-lag
+     */
+    public Duration maxReplicaLag() {
+        return properties.getMaxReplicaLag();
+    }
+
+    /**
+     * 在只读副本上执行查询，必要时向另一个副本对冲
+     * @param name  查询的类别，各自统计耗时，并用作指标标签，如 product、product-list
+     * @param query 幂等的只读查询，可能在两个副本上各执行一次
+     * @return 先成功的副本返回的结果
+     */
+    public <T> T query(String name, Function<JdbcOperations, T> query) {
+        QueryStats queryStats = stats.computeIfAbsent(name, QueryStats::new);
+        queryStats.reads.increment();
+        budget.accumulateAndGet(deposit, (current, amount) -> Math.min(budgetCap, current + amount));
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        Attempt<T> primary;
+        try {
+            primary = submit(replicas.get(first), query, queryStats);
+        } catch (BulkheadFullException e) {
+            queryStats.inline.increment();
+            return query.apply(replicas.get(first));
+        }
+
+        // 等到首选副本返回或对冲等待时间结束；失败的首选查询同样由另一个副本补上
+        primary.result.exceptionally(error -> null)
+                .completeOnTimeout(null, queryStats.delayNanos, TimeUnit.NANOSECONDS)
+                .join();
+        if (primary.result.isDone() && !primary.result.isCompletedExceptionally()) {
+            return primary.result.join();
+        }
+        if (!tryWithdraw()) {
+            queryStats.throttled.increment();
+            return firstSuccessful(List.of(primary)).result.join();
+        }
+        Attempt<T> hedge;
+        try {
+            hedge = submit(replicas.get((first + 1) % replicas.size()), query, queryStats);
+        } catch (BulkheadFullException e) {
+            return firstSuccessful(List.of(primary)).result.join();
+        }
+        Attempt<T> winner = firstSuccessful(List.of(primary, hedge));
+        (winner == hedge ? queryStats.hedgeWon : queryStats.primaryWon).increment();
+        return winner.result.join();
+    }
+
+    private <T> Attempt<T> submit(JdbcTemplate replica, Function<JdbcOperations, T> query, QueryStats queryStats) {
+        Attempt<T> attempt = new Attempt<>();
+        attempt.result = bulkhead.submit(() -> {
+            if (attempt.isCancelled()) {
+                throw new IllegalStateException("对冲读取已取消");
+            }
+            CURRENT_ATTEMPT.set(attempt);
+            long start = System.nanoTime();
+            boolean succeeded = false;
+            try {
+                T value = query.apply(replica);
+                succeeded = true;
+                return value;
+            } finally {
+                // 被取消的尝试正是慢的那部分，同样计入；只统计成功的查询会使分位数偏低
+                if (succeeded || attempt.isCancelled()) {
+                    queryStats.record(System.nanoTime() - start);
+                }
+                attempt.finish();
+                CURRENT_ATTEMPT.remove();
+            }
+        });
+        return attempt;
+    }
+
+    /**
+     * 等待第一个成功的尝试，取消其余尝试；全部失败时抛出最后一个失败的原因
+     */
+    private static <T> Attempt<T> firstSuccessful(List<Attempt<T>> attempts) {
+        CompletableFuture<Attempt<T>> winner = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        for (Attempt<T> attempt : attempts) {
+            attempt.result.whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(attempt);
+                } else if (failed.incrementAndGet() == attempts.size()) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            return winner.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException nested ? nested.getCause() : e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        } finally {
+            attempts.forEach(Attempt::cancel);
+        }
+    }
+
+    private boolean tryWithdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < HEDGE_COST) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - HEDGE_COST));
+        return true;
+    }
+
+    /**
+     * 某类查询当前的对冲等待时间
+     */
+    public Duration hedgeDelay(String name) {
+        QueryStats queryStats = stats.get(name);
+        return Duration.ofNanos(queryStats == null ? properties.getInitialDelay().toNanos() : queryStats.delayNanos);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        bulkhead.getExecutor().shutdown();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * 在一个副本上的一次查询；完成后不再取消，避免取消落到连接上的下一条语句
+     */
+    private static final class Attempt<T> {
+
+        CompletableFuture<T> result;
+        private Statement statement;
+        private boolean cancelled;
+        private boolean finished;
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        synchronized void register(Statement statement) throws SQLException {
+            if (cancelled) {
+                throw new SQLException("对冲读取已取消");
+            }
+            this.statement = statement;
+        }
+
+        synchronized void finish() {
+            finished = true;
+            statement = null;
+        }
+
+        synchronized void cancel() {
+            if (finished || cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    // 语句已结束
+                }
+            }
+        }
+    }
+
+    /**
+     * 登记执行中的语句以便取消，并以请求的剩余时间作为查询超时（不在事务中，事务超时不适用）
+     */
+    private static final class ReplicaJdbcTemplate extends JdbcTemplate {
+
+        ReplicaJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        protected void applyStatementSettings(Statement stmt) throws SQLException {
+            super.applyStatementSettings(stmt);
+            Deadline deadline = Deadline.current();
+            if (deadline != null) {
+                long remainingMillis = deadline.remainingMillis();
+                if (remainingMillis <= 0) {
+                    throw new DeadlineExceededException();
+                }
+                stmt.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000));
+            }
+            Attempt<?> attempt = CURRENT_ATTEMPT.get();
+            if (attempt != null) {
+                attempt.register(stmt);
+            }
+        }
+    }
+
+    /**
+     * 一类查询的最近耗时和指标
+     */
+    private final class QueryStats {
+
+        private final long[] samples = new long[WINDOW];
+        private int next;
+        private long recorded;
+        private volatile long delayNanos = properties.getInitialDelay().toNanos();
+
+        final Counter reads;
+        final Counter inline;
+        final Counter throttled;
+        final Counter primaryWon;
+        final Counter hedgeWon;
+
+        QueryStats(String name) {
+            this.reads = Counter.builder("replica.reads")
+                    .description("在只读副本上执行的读取数")
+                    .tag("query", name)
+                    .register(meterRegistry);
+            this.inline = Counter.builder("replica.reads.inline")
+                    .description("副本查询线程池已满、在调用线程中直接执行而未对冲的读取数")
+                    .tag("query", name)
+                    .register(meterRegistry);
+            this.throttled = Counter.builder("replica.reads.hedge.throttled")
+                    .description("达到对冲等待时间但对冲预算已耗尽的读取数")
+                    .tag("query", name)
+                    .register(meterRegistry);
+            this.primaryWon = Counter.builder("replica.reads.hedged")
+                    .description("发出了对冲查询的读取数，按先返回的一方")
+                    .tag("query", name)
+                    .tag("winner", "primary")
+                    .register(meterRegistry);
+            this.hedgeWon = Counter.builder("replica.reads.hedged")
+                    .description("发出了对冲查询的读取数，按先返回的一方")
+                    .tag("query", name)
+                    .tag("winner", "hedge")
+                    .register(meterRegistry);
+            Gauge.builder("replica.reads.hedge.delay", this, stats -> stats.delayNanos / 1_000_000.0)
+                    .description("当前的对冲等待时间，即最近查询耗时的 percentile 分位数")
+                    .tag("query", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % WINDOW;
+            recorded++;
+            if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, WINDOW));
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(properties.getPercentile() * sorted.length) - 1;
+                long percentile = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+                delayNanos = Math.max(properties.getMinDelay().toNanos(), percentile);
+            }
+        }
+    }
+}
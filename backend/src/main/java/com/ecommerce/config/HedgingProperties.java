@@ -0,0 +1,171 @@
+package com.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只读副本的对冲读取配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.hedging")
+public class HedgingProperties {
+
+    /** 是否对按ID读取和全量列表启用对冲读取；至少配置两个副本才生效 */
+    private boolean enabled = false;
+
+    /** 只读副本，按顺序轮流作为首选副本 */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** 每个副本的连接池最大连接数 */
+    private int poolSize = 8;
+
+    /** 执行副本查询的线程数，首选查询和对冲查询共用 */
+    private int threads = 16;
+
+    /** 副本查询的等待队列上限，超出后在调用线程中直接查询首选副本、不再对冲 */
+    private int queueCapacity = 100;
+
+    /** 首选副本超过最近查询耗时的这一分位数仍未返回时，向另一个副本发出相同的查询 */
+    private double percentile = 0.95;
+
+    /** 样本不足时的对冲等待时间 */
+    private Duration initialDelay = Duration.ofMillis(50);
+
+    /** 对冲等待时间的下限，避免查询普遍很快时几乎每个请求都对冲 */
+    private Duration minDelay = Duration.ofMillis(5);
+
+    /** 对冲查询数与读取数之比的上限，副本普遍变慢时对冲不会成倍放大负载 */
+    private double maxHedgeRatio = 0.05;
+
+    /** 预算可以累积的对冲查询数，允许短时的突发 */
+    private int burst = 10;
+
+    /** 副本复制延迟的上限：产品失效后这段时间内对它的读取（列表为任何产品失效后）改查主库，副本读到的结果才会放入缓存 */
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    public static class Replica {
+
+        /** JDBC URL */
+        private String url;
+
+        /** 为空时使用 spring.datasource.username */
+        private String username;
+
+        /** 为空时使用 spring.datasource.password */
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getInitialDelay() {
+        return initialDelay;
+    }
+
+    public void setInitialDelay(Duration initialDelay) {
+        this.initialDelay = initialDelay;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    public void setMaxHedgeRatio(double maxHedgeRatio) {
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public Duration getMaxReplicaLag() {
+        return maxReplicaLag;
+    }
+
+    public void setMaxReplicaLag(Duration maxReplicaLag) {
+        this.maxReplicaLag = maxReplicaLag;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ecommerce.config;
+
+import com.ecommerce.cache.InventoryNotReadyException;
+import com.ecommerce.cache.InventoryReport;
+import com.ecommerce.cache.ReorderItem;
+import com.ecommerce.lifecycle.DeadlineExceededException;
+import com.ecommerce.model.Product;
+import com.ecommerce.service.ImportTooLargeException;
+import com.ecommerce.service.PricePreview;
+import com.ecommerce.service.PriceRule;
+import com.ecommerce.service.PriceRuleJob;
+import com.ecommerce.service.PriceRuleJobRunningException;
+import com.ecommerce.service.ProductImportJob;
+import com.ecommerce.service.TrendingProduct;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+/**
+ * GraalVM 原生镜像所需的可达性元数据
+ * 实体、Spring Data 仓库和 Actuator 端点由 Spring AOT 自动处理，这里补充 AOT 无法推断的部分
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.EcommerceRuntimeHints.class)
+@RegisterReflectionForBinding({Product.class, PriceRule.class, PricePreview.class, PriceRuleJob.class,
+        ProductImportJob.class, ProductImportJob.RowError.class, TrendingProduct.class,
+        InventoryReport.class, InventoryReport.CategoryInventory.class, ReorderItem.class})
+public class NativeHintsConfig {
+
+    static class EcommerceRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // 校验消息由 Hibernate Validator 和 MessageSource 通过 ResourceBundle 加载
+            hints.resources().registerResourceBundle("ValidationMessages");
+            hints.resources().registerPattern("ValidationMessages*.properties");
+
+            // JPA 审计监听器由 Hibernate 反射实例化
+            hints.reflection().registerType(AuditingEntityListener.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+            // 异常上的 @ResponseStatus 在运行时通过注解解析
+            hints.reflection().registerType(BulkheadFullException.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(PriceRuleJobRunningException.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(ImportTooLargeException.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(InventoryNotReadyException.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            hints.reflection().registerType(DeadlineExceededException.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
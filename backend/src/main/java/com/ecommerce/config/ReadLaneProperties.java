@@ -0,0 +1,39 @@
+package com.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 读端点的实现选择
+ */
+@ConfigurationProperties(prefix = "ecommerce.read-lane")
+public class ReadLaneProperties {
+
+    public enum Lane {
+        /** 经 ProductService：读模型、缓存，未命中时通过 JPA 读取实体再由 Jackson 序列化 */
+        JPA,
+        /** 以 JDBC 直接读取行并写入 JSON 生成器，不创建实体，也不经过缓存 */
+        JDBC
+    }
+
+    /** GET /api/products 使用的实现 */
+    private Lane list = Lane.JPA;
+
+    /** GET /api/products/{id} 使用的实现 */
+    private Lane byId = Lane.JPA;
+
+    public Lane getList() {
+        return list;
+    }
+
+    public void setList(Lane list) {
+        this.list = list;
+    }
+
+    public Lane getById() {
+        return byId;
+    }
+
+    public void setById(Lane byId) {
+        this.byId = byId;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 按事务类型路由连接：只读事务使用读连接池，其余使用写连接池
+ * 需要包装在 LazyConnectionDataSourceProxy 中，保证在只读标记生效后才真正获取连接
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        READ, WRITE
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 启用后台定时任务，提供 TaskScheduler（如目录快照的定期写入）
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.config;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * 写出 StreamingResponseBody 类型的响应体
+ * Spring MVC 只在声明的返回类型为 StreamingResponseBody 时流式写出；
+ * 经 CompletableFuture&lt;ResponseEntity&lt;?&gt;&gt; 返回时改由消息转换器处理，否则会被 Jackson 当作普通对象序列化。
+ * 与 byte[] 响应体一样在异步分派的请求线程上写出
+ */
+@Component
+public class StreamingBodyMessageConverter extends AbstractHttpMessageConverter<StreamingResponseBody> {
+
+    public StreamingBodyMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StreamingResponseBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StreamingResponseBody readInternal(Class<? extends StreamingResponseBody> clazz,
+                                                 HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StreamingResponseBody 只用于响应", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(StreamingResponseBody body, HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.cache.InventoryColumns;
+import com.ecommerce.cache.InventoryReport;
+import com.ecommerce.cache.ReorderItem;
+import com.ecommerce.config.Bulkhead;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class InventoryAnalyticsController {
+
+    private final InventoryColumns inventoryColumns;
+    private final Bulkhead readBulkhead;
+
+    @Autowired
+    public InventoryAnalyticsController(InventoryColumns inventoryColumns,
+                                        @Qualifier("readBulkhead") Bulkhead readBulkhead) {
+        this.inventoryColumns = inventoryColumns;
+        this.readBulkhead = readBulkhead;
+    }
+
+    /**
+     * GET /api/analytics/inventory - 按分类统计库存货值、低库存和缺货数、价格分布
+     * 由内存中的列式副本计算，不查询数据库
+     */
+    @GetMapping("/inventory")
+    public CompletableFuture<ResponseEntity<InventoryReport>> getInventoryReport() {
+        return readBulkhead.submit(() -> ResponseEntity.ok(inventoryColumns.report()));
+    }
+
+    /**
+     * GET /api/analytics/inventory/reorder - 库存低于补货阈值的产品，按缺口从大到小排列
+     * 由写路径维护，不扫描
+     */
+    @GetMapping("/inventory/reorder")
+    public CompletableFuture<ResponseEntity<List<ReorderItem>>> getBelowReorder() {
+        return readBulkhead.submit(() -> ResponseEntity.ok(inventoryColumns.belowReorder()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.config.Bulkhead;
+import com.ecommerce.service.PricePreview;
+import com.ecommerce.service.PriceRule;
+import com.ecommerce.service.PriceRuleJob;
+import com.ecommerce.service.PriceRuleService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/price-rules")
+@CrossOrigin(origins = "*")
+public class PriceRuleController {
+
+    private final PriceRuleService priceRuleService;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
+
+    @Autowired
+    public PriceRuleController(PriceRuleService priceRuleService,
+                               @Qualifier("readBulkhead") Bulkhead readBulkhead,
+                               @Qualifier("writeBulkhead") Bulkhead writeBulkhead) {
+        this.priceRuleService = priceRuleService;
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
+    }
+
+    /**
+     * POST /api/price-rules/preview - 预览调价规则的效果，不修改数据
+     */
+    @PostMapping("/preview")
+    public CompletableFuture<ResponseEntity<PricePreview>> preview(@Valid @RequestBody PriceRule rule) {
+        return readBulkhead.submit(() -> ResponseEntity.ok(priceRuleService.preview(rule)));
+    }
+
+    /**
+     * POST /api/price-rules/jobs - 启动调价任务，返回 202 和任务状态地址
+     */
+    @PostMapping("/jobs")
+    public CompletableFuture<ResponseEntity<PriceRuleJob>> apply(@Valid @RequestBody PriceRule rule) {
+        return writeBulkhead.submit(() -> {
+            PriceRuleJob job = priceRuleService.start(rule);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/price-rules/jobs/" + job.getId()))
+                    .body(job);
+        });
+    }
+
+    /**
+     * GET /api/price-rules/jobs/{jobId} - 查询调价任务的进度
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PriceRuleJob> getJob(@PathVariable String jobId) {
+        return priceRuleService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
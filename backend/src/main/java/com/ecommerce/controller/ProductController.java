@@ -1,75 +1,291 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.cache.ProductJsonCache;
+import com.ecommerce.cache.ProductJsonCache.SerializedJson;
+import com.ecommerce.cache.ProductReadModel;
+import com.ecommerce.cache.TrendingProducts;
+import com.ecommerce.config.Bulkhead;
+import com.ecommerce.config.ReadLaneProperties;
+import com.ecommerce.config.ReadLaneProperties.Lane;
+import com.ecommerce.lifecycle.Deadline;
 import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductJsonReader;
+import com.ecommerce.service.ProductLookup;
 import com.ecommerce.service.ProductService;
+import com.ecommerce.service.ProductWriteCoalescer;
+import com.ecommerce.service.TrendingProduct;
+import com.ecommerce.service.WriteCoalescingProperties.Durability;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
 public class ProductController {
-    
+
+    /** 单次批量查询的最大ID数 */
+    static final int MAX_BATCH_SIZE = 200;
+
+    /** 单次热门产品查询的最大数量 */
+    static final int MAX_TRENDING_LIMIT = 100;
+
+    /** 单次相似产品查询的最大数量 */
+    static final int MAX_RELATED_LIMIT = 50;
+
     private final ProductService productService;
-    
+    private final ProductJsonCache productJsonCache;
+    private final ProductReadModel readModel;
+    private final ProductJsonReader productJsonReader;
+    private final ReadLaneProperties readLane;
+    private final TrendingProducts trending;
+    private final ProductWriteCoalescer writeCoalescer;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
+
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ProductJsonCache productJsonCache,
+                             ProductReadModel readModel,
+                             ProductJsonReader productJsonReader,
+                             ReadLaneProperties readLane,
+                             TrendingProducts trending,
+                             ProductWriteCoalescer writeCoalescer,
+                             @Qualifier("readBulkhead") Bulkhead readBulkhead,
+                             @Qualifier("writeBulkhead") Bulkhead writeBulkhead) {
         this.productService = productService;
+        this.productJsonCache = productJsonCache;
+        this.readModel = readModel;
+        this.productJsonReader = productJsonReader;
+        this.readLane = readLane;
+        this.trending = trending;
+        this.writeCoalescer = writeCoalescer;
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
     }
-    
+
     /**
      * GET /api/products - 获取所有产品
+     * 响应体为缓存的已序列化 JSON，客户端接受 gzip 时返回压缩后的字节；
+     * 读模型就绪时按其修改计数缓存，未修改时不解码产品。ecommerce.read-lane.list=jdbc 时由 JDBC 边查询边写出
      */
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public CompletableFuture<ResponseEntity<?>> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (readLane.getList() == Lane.JDBC) {
+            return CompletableFuture.completedFuture(streamAllProducts(acceptEncoding));
+        }
+        return readBulkhead.submit(() -> jsonResponse(allProductsJson(), acceptEncoding));
     }
-    
+
+    /**
+     * JDBC 通道的完整列表边查询边写入响应，不在内存中生成完整的 JSON 和 gzip 结果
+     * 异步分派后写出响应的请求线程只负责等待，查询和序列化仍在读隔离舱中执行，带着请求的截止时间。
+     * 响应头在第一批数据写出时即已提交，之后的失败（如截止时间已过）只能中断连接
+     */
+    private ResponseEntity<StreamingResponseBody> streamAllProducts(String acceptEncoding) {
+        Deadline deadline = Deadline.current();
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            try (Deadline.Scope ignored = deadline == null ? null : deadline.attach()) {
+                readBulkhead.submit(() -> {
+                    // 响应流由框架关闭，这里只结束 gzip
+                    OutputStream target = StreamUtils.nonClosing(out);
+                    try (OutputStream json = gzip ? new GZIPOutputStream(target, 8192) : target) {
+                        productJsonReader.writeAllAsJson(json);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return null;
+                }).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    private SerializedJson allProductsJson() {
+        if (readModel.isReady()) {
+            return productJsonCache.serialize(readModel, readModel.version(), readModel::findAll);
+        }
+        return productJsonCache.serialize(productService.getAllProducts());
+    }
+
     /**
      * GET /api/products/{id} - 根据ID获取产品
+     * 合并窗口中尚未提交的更新（durability=accepted）优先返回，调用方能读到自己的写入
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        return productService.getProductById(id)
+    public CompletableFuture<ResponseEntity<byte[]>> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<Product> pending = writeCoalescer.pending(id);
+        if (pending.isPresent()) {
+            trending.recordView(id);
+            return CompletableFuture.completedFuture(
+                    jsonResponse(productJsonCache.serialize(pending.get()), acceptEncoding));
+        }
+        if (readLane.getById() == Lane.JDBC) {
+            return readBulkhead.submit(() -> productJsonReader.findByIdAsJson(id)
+                    .map(json -> {
+                        trending.recordView(id);
+                        return jsonResponse(productJsonCache.wrap(json), acceptEncoding);
+                    })
+                    .orElse(ResponseEntity.notFound().build()));
+        }
+        return readBulkhead.submit(() -> productService.getProductById(id)
+                .map(product -> jsonResponse(productJsonCache.serialize(product), acceptEncoding))
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * GET /api/products/trending?limit=10 - 获取本实例统计的热门产品
+     */
+    @GetMapping("/trending")
+    public CompletableFuture<ResponseEntity<List<TrendingProduct>>> getTrendingProducts(
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_TRENDING_LIMIT) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return readBulkhead.submit(() -> ResponseEntity.ok(productService.getTrendingProducts(limit)));
+    }
+
+    /**
+     * GET /api/products/{id}/related?limit=6 - 获取同一分类中价格最接近的有货产品
+     */
+    @GetMapping("/{id}/related")
+    public CompletableFuture<ResponseEntity<List<Product>>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "6") int limit) {
+        if (limit < 1 || limit > MAX_RELATED_LIMIT) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return readBulkhead.submit(() -> productService.getRelatedProducts(id, limit)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
-    
+
+    /**
+     * GET /api/products?ids=1,2,3 - 按ID批量获取产品
+     * 结果与请求顺序一致，不存在的产品返回 {"id":..,"found":false}
+     */
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<byte[]>> getProductsByIds(@RequestParam List<Long> ids) {
+        return batchGet(ids);
+    }
+
+    /**
+     * POST /api/products/batch-get - 按ID批量获取产品，请求体为ID数组，适用于URL过长的情况
+     */
+    @PostMapping("/batch-get")
+    public CompletableFuture<ResponseEntity<byte[]>> batchGetProducts(@RequestBody List<Long> ids) {
+        return batchGet(ids);
+    }
+
     /**
      * POST /api/products - 创建新产品
      */
     @PostMapping
-    public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product) {
-        Product createdProduct = productService.createProduct(product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+    public CompletableFuture<ResponseEntity<Product>> createProduct(@Valid @RequestBody Product product) {
+        return writeBulkhead.submit(() -> {
+            Product createdProduct = productService.createProduct(product);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdProduct);
+        });
     }
-    
+
     /**
      * PUT /api/products/{id} - 更新产品
+     * 开启更新合并时，同一产品在窗口内的更新合并为一个事务；durability=accepted 时不等提交，返回 202
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(
+    public CompletableFuture<ResponseEntity<Product>> updateProduct(
             @PathVariable Long id,
             @Valid @RequestBody Product productDetails) {
-        return productService.updateProduct(id, productDetails)
+        if (writeCoalescer.isEnabled()) {
+            HttpStatus status = writeCoalescer.getDurability() == Durability.ACCEPTED
+                    ? HttpStatus.ACCEPTED : HttpStatus.OK;
+            return writeBulkhead.submit(() -> writeCoalescer.update(id, productDetails))
+                    .thenCompose(update -> update)
+                    .thenApply(product -> product
+                            .map(updated -> ResponseEntity.status(status).body(updated))
+                            .orElse(ResponseEntity.notFound().build()));
+        }
+        return writeBulkhead.submit(() -> productService.updateProduct(id, productDetails)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
-    
+
     /**
      * DELETE /api/products/{id} - 删除产品
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        if (productService.deleteProduct(id)) {
-            return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<Void>> deleteProduct(@PathVariable Long id) {
+        return writeBulkhead.submit(() -> {
+            if (productService.deleteProduct(id)) {
+                return ResponseEntity.noContent().<Void>build();
+            }
+            return ResponseEntity.notFound().<Void>build();
+        });
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> batchGet(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE || ids.contains(null)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return readBulkhead.submit(() -> {
+            List<ProductLookup> lookups = writeCoalescer.withPending(productService.getProductsByIds(ids));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(productJsonCache.serializeLookups(lookups));
+        });
+    }
+
+    /**
+     * 直接写出已序列化的 JSON 字节，不再经过 Jackson 消息转换
+     */
+    private ResponseEntity<byte[]> jsonResponse(SerializedJson json, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (json.isCompressible() && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(json.gzip());
+        }
+        return response.body(json.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
         }
-        return ResponseEntity.notFound().build();
+        return false;
     }
 }
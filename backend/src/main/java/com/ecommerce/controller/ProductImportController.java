@@ -0,0 +1,57 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.service.ProductImportJob;
+import com.ecommerce.service.ProductImportJob.RowError;
+import com.ecommerce.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/import")
+@CrossOrigin(origins = "*")
+public class ProductImportController {
+
+    private final ProductImportService importService;
+
+    @Autowired
+    public ProductImportController(ProductImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * POST /api/products/import - 上传 CSV（请求体为文件内容），返回 202 和任务状态地址
+     */
+    @PostMapping
+    public ResponseEntity<ProductImportJob> importProducts(HttpServletRequest request) throws IOException {
+        ProductImportJob job = importService.submit(request.getInputStream());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/products/import/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * GET /api/products/import/{jobId} - 查询导入任务的进度
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ProductImportJob> getJob(@PathVariable String jobId) {
+        return importService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/products/import/{jobId}/errors - 查询导入任务被拒绝的行
+     */
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<List<RowError>> getErrors(@PathVariable String jobId) {
+        return importService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(job.getErrors()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
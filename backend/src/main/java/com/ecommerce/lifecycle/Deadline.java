@@ -0,0 +1,86 @@
+package com.ecommerce.lifecycle;
+
+import java.time.Duration;
+
+/**
+ * 请求的截止时间
+ * 由 DeadlineFilter 在请求线程上设置，Bulkhead 提交任务时带到执行线程，
+ * 事务管理器据此设置事务超时（即 JDBC 查询超时），耗时的步骤之前用 checkCurrent 检查。
+ * 后台任务（调价、导入、定时任务）的线程上没有截止时间
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * 当前线程的截止时间，没有时为 null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @throws DeadlineExceededException 当前线程的截止时间已过
+     */
+    public static void checkCurrent() {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException();
+        }
+    }
+
+    /**
+     * 截止时间已过后发生的异常视为超时的结果（查询被取消、事务超时等），转换为 DeadlineExceededException
+     */
+    public static RuntimeException translate(RuntimeException e) {
+        Deadline deadline = CURRENT.get();
+        if (deadline == null || !deadline.isExpired() || e instanceof DeadlineExceededException) {
+            return e;
+        }
+        return new DeadlineExceededException(e);
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public long remainingMillis() {
+        return Duration.ofNanos(remainingNanos()).toMillis();
+    }
+
+    /**
+     * 设为当前线程的截止时间，关闭返回的 Scope 时恢复原来的值
+     */
+    public Scope attach() {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.lifecycle;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 请求的截止时间已过时抛出，映射为 504 Gateway Timeout；此时客户端通常已经放弃了这个请求
+ */
+@ResponseStatus(value = HttpStatus.GATEWAY_TIMEOUT, reason = "请求已超过截止时间")
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException() {
+        super("请求已超过截止时间");
+    }
+
+    public DeadlineExceededException(Throwable cause) {
+        super("请求已超过截止时间", cause);
+    }
+}
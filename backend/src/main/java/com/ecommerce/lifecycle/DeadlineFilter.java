@@ -0,0 +1,65 @@
+package com.ecommerce.lifecycle;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 为 API 请求设置截止时间：客户端在请求头中声明的超时（不超过 max-timeout），
+ * 否则为第一个匹配的路由的超时，都没有时为 default-timeout
+ */
+@Component
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public DeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (Deadline.Scope ignored = Deadline.after(timeout(request)).attach()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    Duration timeout(HttpServletRequest request) {
+        String declared = request.getHeader(properties.getHeader());
+        if (declared != null) {
+            try {
+                long millis = Long.parseLong(declared.trim());
+                // 不大于 0 的值会使请求一开始就超时，与无法解析的值一样按未声明处理
+                if (millis > 0) {
+                    Duration timeout = Duration.ofMillis(millis);
+                    return timeout.compareTo(properties.getMaxTimeout()) > 0 ? properties.getMaxTimeout() : timeout;
+                }
+            } catch (NumberFormatException e) {
+                // 无效的值按未声明处理
+            }
+        }
+        for (DeadlineProperties.Route route : properties.getRoutes()) {
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.getPath(), request.getRequestURI())) {
+                return route.getTimeout();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+}
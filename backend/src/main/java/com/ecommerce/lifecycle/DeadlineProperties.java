@@ -0,0 +1,104 @@
+package com.ecommerce.lifecycle;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求截止时间配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.deadline")
+public class DeadlineProperties {
+
+    /** 是否为 API 请求设置截止时间 */
+    private boolean enabled = true;
+
+    /** 客户端声明自身超时的请求头，值为毫秒数；没有或无效时使用路由的默认值 */
+    private String header = "X-Request-Timeout";
+
+    /** 没有匹配的路由时的默认超时 */
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    /** 请求头声明的超时的上限 */
+    private Duration maxTimeout = Duration.ofSeconds(30);
+
+    /** 按路由的默认超时，按顺序匹配第一个 */
+    private List<Route> routes = new ArrayList<>();
+
+    public static class Route {
+
+        /** HTTP 方法，为空时匹配所有方法 */
+        private String method;
+
+        /** Ant 风格的路径模式，如 /api/products/** */
+        private String path;
+
+        private Duration timeout;
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public Duration getMaxTimeout() {
+        return maxTimeout;
+    }
+
+    public void setMaxTimeout(Duration maxTimeout) {
+        this.maxTimeout = maxTimeout;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+}
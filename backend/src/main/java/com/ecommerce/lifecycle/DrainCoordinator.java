@@ -0,0 +1,126 @@
+package com.ecommerce.lifecycle;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 停机排空
+ * 作为最先停止的生命周期组件（phase 最大），在 Web 服务器优雅停机和线程池关闭之前：
+ * 将就绪状态切换为 REFUSING_TRAFFIC、拒绝新请求，并等待进行中的请求和事务完成，
+ * 最长等待 ecommerce.drain.timeout
+ */
+@Component
+@EnableConfigurationProperties(DrainProperties.class)
+public class DrainCoordinator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DrainCoordinator.class);
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    public enum State {
+        RUNNING, DRAINING, DRAINED, TIMED_OUT
+    }
+
+    private final InFlightTracker tracker;
+    private final DrainProperties properties;
+    private final ApplicationContext applicationContext;
+    private final Timer drainTimer;
+
+    private volatile boolean running;
+    private volatile State state = State.RUNNING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    public DrainCoordinator(InFlightTracker tracker,
+                            DrainProperties properties,
+                            ApplicationContext applicationContext,
+                            MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.properties = properties;
+        this.applicationContext = applicationContext;
+        this.drainTimer = Timer.builder("drain.duration")
+                .description("停机排空耗时")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drain();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * 开始排空并阻塞等待，直到空闲或超时
+     */
+    void drain() {
+        startedAt = Instant.now();
+        state = State.DRAINING;
+        tracker.startDraining();
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        log.info("开始排空: {} 个进行中的请求, {} 个进行中的事务",
+                tracker.getInFlightRequests(), tracker.getOpenTransactions());
+
+        long start = System.nanoTime();
+        long deadline = start + properties.getTimeout().toNanos();
+        while (!tracker.isIdle() && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        drainTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        finishedAt = Instant.now();
+
+        if (tracker.isIdle()) {
+            state = State.DRAINED;
+            log.info("排空完成");
+        } else {
+            state = State.TIMED_OUT;
+            log.warn("排空超时: 仍有 {} 个请求, {} 个事务未完成",
+                    tracker.getInFlightRequests(), tracker.getOpenTransactions());
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public DrainProperties getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce.lifecycle;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/drain - 排空进度
+ */
+@Component
+@Endpoint(id = "drain")
+public class DrainEndpoint {
+
+    private final DrainCoordinator coordinator;
+    private final InFlightTracker tracker;
+
+    public DrainEndpoint(DrainCoordinator coordinator, InFlightTracker tracker) {
+        this.coordinator = coordinator;
+        this.tracker = tracker;
+    }
+
+    @ReadOperation
+    public Map<String, Object> drain() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", coordinator.getState());
+        status.put("inFlightRequests", tracker.getInFlightRequests());
+        status.put("openTransactions", tracker.getOpenTransactions());
+        status.put("timeout", coordinator.getProperties().getTimeout().toString());
+        Instant startedAt = coordinator.getStartedAt();
+        if (startedAt != null) {
+            Instant end = coordinator.getFinishedAt() != null ? coordinator.getFinishedAt() : Instant.now();
+            status.put("startedAt", startedAt.toString());
+            status.put("elapsedMillis", Duration.between(startedAt, end).toMillis());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.lifecycle;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 停机排空配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.drain")
+public class DrainProperties {
+
+    /** 等待进行中的请求和事务完成的最长时间，应小于 Pod 的 terminationGracePeriodSeconds */
+    private Duration timeout = Duration.ofSeconds(25);
+
+    /** 排空期间拒绝新请求时返回的 Retry-After 秒数 */
+    private int retryAfterSeconds = 1;
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
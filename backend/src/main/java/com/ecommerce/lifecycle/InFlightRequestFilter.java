@@ -0,0 +1,90 @@
+package com.ecommerce.lifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 统计进行中的 API 请求；排空开始后拒绝新请求（503 + Connection: close），让客户端立即改连其他 Pod
+ * 异步请求（隔离舱线程池中执行）在异步处理完成时才计为结束
+ */
+@Component
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    private final InFlightTracker tracker;
+    private final DrainProperties drainProperties;
+    private final Counter rejected;
+
+    public InFlightRequestFilter(InFlightTracker tracker, DrainProperties drainProperties, MeterRegistry meterRegistry) {
+        this.tracker = tracker;
+        this.drainProperties = drainProperties;
+        this.rejected = Counter.builder("drain.rejected.requests")
+                .description("排空期间被拒绝的新请求数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (tracker.isDraining()) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(drainProperties.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "服务正在停机");
+            return;
+        }
+
+        tracker.requestStarted();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                async = true;
+                request.getAsyncContext().addListener(new FinishOnComplete());
+            }
+        } finally {
+            if (!async) {
+                tracker.requestFinished();
+            }
+        }
+    }
+
+    private class FinishOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            tracker.requestFinished();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // 超时后容器仍会触发 onComplete
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // 出错后容器仍会触发 onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.lifecycle;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 跟踪进行中的 API 请求和数据库事务
+ * 作为 TransactionExecutionListener，由 Spring Boot 自动注册到事务管理器，只统计新开启的事务
+ */
+@Component
+public class InFlightTracker implements TransactionExecutionListener {
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicInteger openTransactions = new AtomicInteger();
+    private volatile boolean draining;
+
+    public InFlightTracker(MeterRegistry meterRegistry) {
+        Gauge.builder("drain.inflight.requests", inFlightRequests, AtomicInteger::get)
+                .description("进行中的 API 请求数")
+                .register(meterRegistry);
+        Gauge.builder("drain.open.transactions", openTransactions, AtomicInteger::get)
+                .description("进行中的数据库事务数")
+                .register(meterRegistry);
+    }
+
+    public void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null) {
+            openTransactions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        openTransactions.decrementAndGet();
+    }
+
+    @Override
+    public void afterRollback(TransactionExecution transaction, Throwable rollbackFailure) {
+        openTransactions.decrementAndGet();
+    }
+
+    public int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public int getOpenTransactions() {
+        return Math.max(0, openTransactions.get());
+    }
+
+    public boolean isIdle() {
+        return getInFlightRequests() == 0 && getOpenTransactions() == 0;
+    }
+
+    public boolean isDraining() {
+        return draining;
+    }
+
+    void startDraining() {
+        this.draining = true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.lifecycle;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 就绪前预热配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.warmup")
+public class WarmupProperties {
+
+    /** 是否在就绪前执行预热 */
+    private boolean enabled = true;
+
+    /** 合成请求的轮数，每轮依次访问所有预热路径 */
+    private int iterations = 200;
+
+    /** 并发发送合成请求的线程数 */
+    private int concurrency = 4;
+
+    /** 预热的最长时间，超过后直接就绪，不会因预热卡住发布 */
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    /** 按ID访问时采样的产品数量 */
+    private int sampleSize = 20;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+}
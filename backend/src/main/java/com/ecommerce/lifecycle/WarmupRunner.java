@@ -0,0 +1,213 @@
+package com.ecommerce.lifecycle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 就绪前预热
+ * ApplicationRunner 在就绪状态切换为 ACCEPTING_TRAFFIC 之前执行，此时 Web 服务器已在监听，
+ * 但就绪探针仍返回 OUT_OF_SERVICE。预热先填满连接池，再通过本机 HTTP 请求完整地走一遍
+ * 产品接口（过滤器、序列化、校验、服务层、数据库），让 JIT 编译热点代码并填充缓存
+ */
+@Component
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final WarmupProperties properties;
+    private final ApplicationContext applicationContext;
+    private final ObjectProvider<HikariDataSource> connectionPools;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private volatile double firstRoundLatencyMs = Double.NaN;
+    private volatile double lastRoundLatencyMs = Double.NaN;
+
+    public WarmupRunner(WarmupProperties properties,
+                        ApplicationContext applicationContext,
+                        ObjectProvider<HikariDataSource> connectionPools,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.applicationContext = applicationContext;
+        this.connectionPools = connectionPools;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("warmup.round.latency", this, r -> r.firstRoundLatencyMs)
+                .description("预热第一轮请求的平均延迟")
+                .tag("round", "first")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("warmup.round.latency", this, r -> r.lastRoundLatencyMs)
+                .description("预热最后一轮请求的平均延迟")
+                .tag("round", "last")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()
+                || !(applicationContext instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null) {
+            return;
+        }
+        String baseUrl = "http://localhost:" + webContext.getWebServer().getPort();
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+
+        primeConnectionPools();
+        List<Request> requests = warmupRequests(baseUrl);
+        int rounds = sendRounds(requests, deadline);
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("warmup.duration")
+                .description("就绪前预热耗时")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("预热完成: {} 轮, 耗时 {} ms, 首轮平均延迟 {} ms, 末轮平均延迟 {} ms",
+                rounds, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                String.format("%.2f", firstRoundLatencyMs), String.format("%.2f", lastRoundLatencyMs));
+    }
+
+    /**
+     * 为每个连接池同步建立 minimumIdle 个连接，避免首批请求承担建连开销
+     */
+    private void primeConnectionPools() {
+        for (HikariDataSource pool : connectionPools) {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                for (int i = 0; i < Math.max(1, pool.getMinimumIdle()); i++) {
+                    connections.add(pool.getConnection());
+                }
+            } catch (SQLException e) {
+                log.warn("预热连接池 {} 失败: {}", pool.getPoolName(), e.getMessage());
+            } finally {
+                for (Connection connection : connections) {
+                    try {
+                        connection.close();
+                    } catch (SQLException ignored) {
+                        // 归还连接失败不影响预热
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 构造预热请求：产品列表、热门产品、采样的产品详情和不存在的产品（404 路径）；预热只读，不产生写入。
+     * 预热访问计入的热门统计在就绪时由 TrendingProducts 清空
+     */
+    private List<Request> warmupRequests(String baseUrl) {
+        List<Request> requests = new ArrayList<>();
+        requests.add(Request.get(baseUrl + "/api/products"));
+        requests.add(Request.get(baseUrl + "/api/products/trending"));
+        try {
+            HttpResponse<String> response = send(Request.get(baseUrl + "/api/products"));
+            JsonNode products = objectMapper.readTree(response.body());
+            for (int i = 0; i < products.size() && i < properties.getSampleSize(); i++) {
+                requests.add(Request.get(baseUrl + "/api/products/" + products.get(i).get("id").asLong()));
+            }
+        } catch (Exception e) {
+            log.warn("获取预热产品样本失败: {}", e.getMessage());
+        }
+        requests.add(Request.get(baseUrl + "/api/products/0"));
+        return requests;
+    }
+
+    private int sendRounds(List<Request> requests, long deadline) {
+        int iterations = properties.getIterations();
+        AtomicInteger nextRound = new AtomicInteger();
+        AtomicInteger completedRounds = new AtomicInteger();
+        AtomicLongArray roundNanos = new AtomicLongArray(Math.max(1, iterations));
+        Counter succeeded = Counter.builder("warmup.requests").tag("outcome", "success").register(meterRegistry);
+        Counter failed = Counter.builder("warmup.requests").tag("outcome", "error").register(meterRegistry);
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, properties.getConcurrency()));
+        for (int w = 0; w < properties.getConcurrency(); w++) {
+            workers.execute(() -> {
+                int round;
+                while ((round = nextRound.getAndIncrement()) < iterations && System.nanoTime() < deadline) {
+                    long roundStart = System.nanoTime();
+                    for (Request request : requests) {
+                        try {
+                            send(request);
+                            succeeded.increment();
+                        } catch (Exception e) {
+                            failed.increment();
+                        }
+                    }
+                    roundNanos.set(round, System.nanoTime() - roundStart);
+                    completedRounds.incrementAndGet();
+                }
+            });
+        }
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Math.max(0, deadline - System.nanoTime()) + TimeUnit.SECONDS.toNanos(5),
+                    TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+
+        int rounds = completedRounds.get();
+        if (rounds > 0) {
+            firstRoundLatencyMs = roundNanos.get(0) / 1_000_000.0 / requests.size();
+            int last = roundNanos.length() - 1;
+            while (last > 0 && roundNanos.get(last) == 0) {
+                last--;
+            }
+            lastRoundLatencyMs = roundNanos.get(last) / 1_000_000.0 / requests.size();
+        }
+        return rounds;
+    }
+
+    private HttpResponse<String> send(Request request) throws Exception {
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(request.url()))
+                .timeout(Duration.ofSeconds(5))
+                .header("Accept", "application/json")
+                .build();
+        return httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private record Request(String url) {
+
+        static Request get(String url) {
+            return new Request(url);
+        }
+    }
+}
@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_category", columnList = "category, id"),
+        @Index(name = "idx_name", columnList = "name"),
+        @Index(name = "idx_updated_at", columnList = "updated_at")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Product {
     
@@ -36,6 +40,11 @@ public class Product {
     @Column(name = "stock_quantity", nullable = false)
     private Integer stockQuantity = 0;
     
+    /** 补货阈值：库存低于该值时告警，为空表示不告警 */
+    @Min(value = 0, message = "补货阈值必须为非负数")
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold;
+    
     @Size(max = 100, message = "分类名称不能超过100个字符")
     private String category;
     
@@ -106,6 +115,14 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
     
+    public Integer getReorderThreshold() {
+        return reorderThreshold;
+    }
+    
+    public void setReorderThreshold(Integer reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+    
     public String getCategory() {
         return category;
     }
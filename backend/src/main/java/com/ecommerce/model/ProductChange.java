@@ -0,0 +1,66 @@
+package com.ecommerce.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 产品变更日志的一行，与产品的修改在同一个事务中写入
+ * version 单调递增，各实例按 version 游标轮询其他实例的修改
+ */
+@Entity
+@Table(name = "product_changes", indexes = @Index(name = "idx_changed_at", columnList = "changed_at"))
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long version;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /** CREATED、UPDATED 或 DELETED */
+    @Column(name = "change_type", nullable = false, length = 16)
+    private String changeType;
+
+    /** 写入该变更的实例 */
+    @Column(nullable = false, length = 64)
+    private String origin;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    public ProductChange() {
+    }
+
+    public ProductChange(Long productId, String changeType, String origin, LocalDateTime changedAt) {
+        this.productId = productId;
+        this.changeType = changeType;
+        this.origin = origin;
+        this.changedAt = changedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    /**
+     * 按 version 顺序读取游标之后的变更，走主键索引
+     */
+    List<ProductChange> findByVersionGreaterThanOrderByVersionAsc(Long version, Limit limit);
+
+    /**
+     * 最新的 version
+     */
+    @Query("select max(c.version) from ProductChange c")
+    Optional<Long> findLatestVersion();
+
+    /**
+     * 删除过期的变更记录
+     */
+    @Modifying
+    @Query("delete from ProductChange c where c.changedAt < :before")
+    int deleteChangedBefore(LocalDateTime before);
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.config.HedgedReads;
+import com.ecommerce.config.ReadLaneProperties;
+import com.ecommerce.lifecycle.Deadline;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * 读端点的 JDBC 实现（ecommerce.read-lane）
+ * 把 products 表的行直接写入 Jackson 的 JsonGenerator，不经过持久化上下文、实体和脏检查快照，
+ * 字段顺序和格式与 Product 实体的 Jackson 序列化一致。在只读事务中执行，使用读连接池；
+ * 启用对冲读取时改为在只读副本上执行
+ */
+@Repository
+@EnableConfigurationProperties(ReadLaneProperties.class)
+public class ProductJsonReader {
+
+    private static final String SELECT = "SELECT " + ProductRowMapper.COLUMNS + " FROM products";
+    private static final int DEADLINE_CHECK_ROWS = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final HedgedReads hedgedReads;
+
+    public ProductJsonReader(JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             HedgedReads hedgedReads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.hedgedReads = hedgedReads;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 所有产品的 JSON 数组，按ID排序
+     * 查询超时只限制语句执行，逐行读取时每 DEADLINE_CHECK_ROWS 行检查一次请求的截止时间
+     */
+    public byte[] findAllAsJson() {
+        if (hedgedReads.isEnabled()) {
+            return hedgedReads.query("product-list-json", this::writeAll);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        readOnlyTransaction.executeWithoutResult(status -> writeAll(jdbcTemplate, out));
+        return out.toByteArray();
+    }
+
+    /**
+     * 把所有产品的 JSON 数组逐行写入 out，堆内存只占生成器的缓冲区，不随目录大小增长；不关闭 out
+     * 写出期间一直占用读连接和只读事务，客户端读得慢时连接占用随之变长。
+     * 启用对冲读取时两个副本无法同时写同一个响应，仍先在内存中生成完整结果再写出
+     */
+    public void writeAllAsJson(OutputStream out) throws IOException {
+        if (hedgedReads.isEnabled()) {
+            out.write(findAllAsJson());
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> writeAll(jdbcTemplate, out));
+    }
+
+    /**
+     * 单个产品的 JSON；不存在时为空
+     */
+    public Optional<byte[]> findByIdAsJson(long id) {
+        if (hedgedReads.isEnabled()) {
+            return hedgedReads.query("product-json", jdbc -> writeOne(jdbc, id));
+        }
+        return readOnlyTransaction.execute(status -> writeOne(jdbcTemplate, id));
+    }
+
+    private byte[] writeAll(JdbcOperations jdbc) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        writeAll(jdbc, out);
+        return out.toByteArray();
+    }
+
+    private void writeAll(JdbcOperations jdbc, OutputStream out) {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartArray();
+            int[] rows = {0};
+            jdbc.query(SELECT + " ORDER BY id", rs -> {
+                if (++rows[0] % DEADLINE_CHECK_ROWS == 0) {
+                    Deadline.checkCurrent();
+                }
+                writeProduct(generator, rs);
+            });
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Optional<byte[]> writeOne(JdbcOperations jdbc, long id) {
+        return jdbc.query(SELECT + " WHERE id = ?", rs -> {
+            if (!rs.next()) {
+                return Optional.<byte[]>empty();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                writeProduct(generator, rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return Optional.of(out.toByteArray());
+        }, id);
+    }
+
+    private void writeProduct(JsonGenerator generator, ResultSet rs) throws SQLException {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeStringField("description", rs.getString("description"));
+            generator.writeFieldName("price");
+            generator.writeNumber(rs.getBigDecimal("price"));
+            generator.writeNumberField("stockQuantity", rs.getInt("stock_quantity"));
+            generator.writeFieldName("reorderThreshold");
+            generator.writeObject(rs.getObject("reorder_threshold", Integer.class));
+            generator.writeStringField("category", rs.getString("category"));
+            generator.writeStringField("imageUrl", rs.getString("image_url"));
+            // 时间经 ObjectMapper 的 JavaTimeModule 写出，与实体序列化的格式一致
+            generator.writeFieldName("createdAt");
+            generator.writeObject(rs.getObject("created_at", LocalDateTime.class));
+            generator.writeFieldName("updatedAt");
+            generator.writeObject(rs.getObject("updated_at", LocalDateTime.class));
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.config.HedgedReads;
+import com.ecommerce.model.Product;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 从只读副本对冲读取产品，代替缓存未命中时的 JPA 查询（ecommerce.hedging）
+ * 返回的产品不受持久化上下文管理
+ */
+@Repository
+public class ProductReplicaReader {
+
+    private static final String SELECT = "SELECT " + ProductRowMapper.COLUMNS + " FROM products";
+
+    private final HedgedReads hedgedReads;
+    private final ProductRowMapper rowMapper = new ProductRowMapper();
+
+    public ProductReplicaReader(HedgedReads hedgedReads) {
+        this.hedgedReads = hedgedReads;
+    }
+
+    public boolean isEnabled() {
+        return hedgedReads.isEnabled();
+    }
+
+    /**
+     * 副本复制延迟的上限，失效之后这段时间内副本可能还没有应用对应的修改
+     */
+    public Duration maxLag() {
+        return hedgedReads.maxReplicaLag();
+    }
+
+    public Optional<Product> findById(long id) {
+        return hedgedReads.query("product", jdbc ->
+                jdbc.query(SELECT + " WHERE id = ?", rowMapper, id).stream().findFirst());
+    }
+
+    /**
+     * 所有产品，按ID排序
+     */
+    public List<Product> findAll() {
+        return hedgedReads.query("product-list", jdbc -> jdbc.query(SELECT + " ORDER BY id", rowMapper));
+    }
+}
@@ -2,8 +2,45 @@ package com.ecommerce.repository;
 
 import com.ecommerce.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    /**
+     * 查找在指定时间及之后修改过的产品
+     */
+    List<Product> findByUpdatedAtGreaterThanEqual(LocalDateTime since);
+
+    /**
+     * 所有产品的ID
+     */
+    @Query("select p.id from Product p")
+    List<Long> findAllIds();
+
+    /**
+     * 大于指定值的产品ID
+     */
+    @Query("select p.id from Product p where p.id > :id")
+    List<Long> findIdsGreaterThan(long id);
+
+    /**
+     * 最近一次修改时间
+     */
+    @Query("select max(p.updatedAt) from Product p")
+    Optional<LocalDateTime> findLatestUpdatedAt();
+
+    /**
+     * 以一条 DELETE 语句删除产品，不先加载实体
+     * @return 删除的行数，产品不存在时为 0
+     */
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(Long id);
 }
@@ -0,0 +1,33 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Product;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * 把 products 表的行映射为产品，供绕过 JPA 直接用 JDBC 批量读取的场景使用
+ */
+public class ProductRowMapper implements RowMapper<Product> {
+
+    public static final String COLUMNS =
+            "id, name, description, price, stock_quantity, reorder_threshold, category, image_url, created_at, updated_at";
+
+    @Override
+    public Product mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Product product = new Product();
+        product.setId(rs.getLong("id"));
+        product.setName(rs.getString("name"));
+        product.setDescription(rs.getString("description"));
+        product.setPrice(rs.getBigDecimal("price"));
+        product.setStockQuantity(rs.getInt("stock_quantity"));
+        product.setReorderThreshold(rs.getObject("reorder_threshold", Integer.class));
+        product.setCategory(rs.getString("category"));
+        product.setImageUrl(rs.getString("image_url"));
+        product.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        product.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return product;
+    }
+}
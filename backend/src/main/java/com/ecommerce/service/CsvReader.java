@@ -0,0 +1,124 @@
+package com.ecommerce.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式读取 CSV（RFC 4180）：逐条记录读取，内存只保留当前记录
+ * 支持双引号包围的字段、字段内的 "" 转义、逗号和换行，记录以 LF 或 CRLF 结束
+ */
+class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 读取下一条记录，到达末尾时返回 null；空行跳过
+     * @throws CsvFormatException 引号未闭合或引号后紧跟其他字符时
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        while (true) {
+            if (c == '"' && field.isEmpty()) {
+                c = readQuoted(field);
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c != '\n' && c != -1) {
+                    position--;
+                }
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * 当前记录起始的行号（从 1 开始）
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    private int readQuoted(StringBuilder field) throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new CsvFormatException(recordLine, "引号未闭合");
+            }
+            if (c == '"') {
+                int next = read();
+                if (next == '"') {
+                    field.append('"');
+                    continue;
+                }
+                if (next != ',' && next != '\n' && next != '\r' && next != -1) {
+                    throw new CsvFormatException(line, "引号后应为逗号或换行");
+                }
+                return next;
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        char c = buffer[position++];
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * CSV 格式错误，之后的内容无法可靠地划分为记录
+     */
+    static class CsvFormatException extends IOException {
+
+        CsvFormatException(long line, String message) {
+            super("第 " + line + " 行: " + message);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * CSV 批量导入配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.import")
+public class ImportProperties {
+
+    /** 每个批次插入的行数；每个批次在独立的事务中提交 */
+    private int chunkSize = 500;
+
+    /** 单次上传的最大大小，超过时返回 413 */
+    private DataSize maxUploadSize = DataSize.ofMegabytes(512);
+
+    /** 每个任务保留的行错误数，超出的错误只计数 */
+    private int maxErrors = 1000;
+
+    /** 排队等待的导入任务数；导入逐个执行，队列满时返回 503 */
+    private int queueCapacity = 2;
+
+    /** 上传文件的暂存目录，为空时使用系统临时目录 */
+    private String spoolDir;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public DataSize getMaxUploadSize() {
+        return maxUploadSize;
+    }
+
+    public void setMaxUploadSize(DataSize maxUploadSize) {
+        this.maxUploadSize = maxUploadSize;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getSpoolDir() {
+        return spoolDir;
+    }
+
+    public void setSpoolDir(String spoolDir) {
+        this.spoolDir = spoolDir;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 上传的 CSV 超过 ecommerce.import.max-upload-size 时抛出，映射为 413 Payload Too Large
+ */
+@ResponseStatus(value = HttpStatus.PAYLOAD_TOO_LARGE, reason = "导入文件过大")
+public class ImportTooLargeException extends RuntimeException {
+
+    public ImportTooLargeException(long maxBytes) {
+        super("导入文件超过 " + maxBytes + " 字节");
+    }
+}
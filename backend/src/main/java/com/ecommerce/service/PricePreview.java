@@ -0,0 +1,24 @@
+package com.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 调价规则的预览结果，不修改数据
+ *
+ * @param matchedProducts 分类中的产品数
+ * @param changedProducts 价格会发生变化的产品数
+ * @param totalBefore     调整前的价格合计
+ * @param totalAfter      调整后的价格合计
+ * @param sample          按ID顺序的前若干个价格变化
+ */
+public record PricePreview(PriceRule rule,
+                           long matchedProducts,
+                           long changedProducts,
+                           BigDecimal totalBefore,
+                           BigDecimal totalAfter,
+                           List<PriceChange> sample) {
+
+    public record PriceChange(Long id, String name, BigDecimal oldPrice, BigDecimal newPrice) {
+    }
+}
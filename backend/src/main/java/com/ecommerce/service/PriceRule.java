@@ -0,0 +1,67 @@
+package com.ecommerce.service;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 按分类批量调价的规则
+ *
+ * @param category          调价的分类，精确匹配
+ * @param adjustmentPercent 调整百分比，-10 表示降价 10%
+ * @param rounding          调整后的取整方式，默认保留到分
+ */
+public record PriceRule(
+        @NotBlank(message = "分类不能为空")
+        @Size(max = 100, message = "分类名称不能超过100个字符")
+        String category,
+
+        @NotNull(message = "调整比例不能为空")
+        @DecimalMin(value = "-100", inclusive = false, message = "调整比例必须大于-100")
+        @DecimalMax(value = "1000", message = "调整比例不能超过1000")
+        BigDecimal adjustmentPercent,
+
+        Rounding rounding) {
+
+    /** products.price 为 DECIMAL(10, 2) */
+    public static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final BigDecimal CENT = new BigDecimal("0.01");
+
+    public enum Rounding {
+        /** 四舍五入到分 */
+        CENT,
+        /** 四舍五入到元 */
+        WHOLE,
+        /** 最接近的以 .99 结尾的价格，如 8099.991 → 8099.99、90.2 → 89.99 */
+        END_99
+    }
+
+    public PriceRule {
+        if (rounding == null) {
+            rounding = Rounding.CENT;
+        }
+    }
+
+    /**
+     * 计算调整后的价格，结果不小于 0
+     */
+    public BigDecimal apply(BigDecimal price) {
+        BigDecimal adjusted = price.multiply(HUNDRED.add(adjustmentPercent)).divide(HUNDRED);
+        BigDecimal result = switch (rounding) {
+            case CENT -> adjusted.setScale(2, RoundingMode.HALF_UP);
+            case WHOLE -> adjusted.setScale(0, RoundingMode.HALF_UP).setScale(2);
+            case END_99 -> {
+                BigDecimal charm = adjusted.setScale(0, RoundingMode.HALF_UP).subtract(CENT);
+                yield charm.signum() > 0 ? charm : adjusted.setScale(2, RoundingMode.HALF_UP);
+            }
+        };
+        return result.max(BigDecimal.ZERO.setScale(2));
+    }
+}
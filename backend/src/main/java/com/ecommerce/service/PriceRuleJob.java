@@ -0,0 +1,115 @@
+package com.ecommerce.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一次调价任务的进度，各分块并发更新计数
+ */
+public class PriceRuleJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        /** 部分分块失败；其余分块已各自提交，不会回滚 */
+        FAILED
+    }
+
+    private final String id;
+    private final PriceRule rule;
+    private final int totalChunks;
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private final AtomicInteger completedChunks = new AtomicInteger();
+    private final AtomicInteger failedChunks = new AtomicInteger();
+    private final AtomicLong productsScanned = new AtomicLong();
+    private final AtomicLong productsUpdated = new AtomicLong();
+    private final AtomicLong productsSkipped = new AtomicLong();
+
+    PriceRuleJob(String id, PriceRule rule, int totalChunks) {
+        this.id = id;
+        this.rule = rule;
+        this.totalChunks = totalChunks;
+    }
+
+    void chunkCompleted(long scanned, long updated, long skipped) {
+        productsScanned.addAndGet(scanned);
+        productsUpdated.addAndGet(updated);
+        productsSkipped.addAndGet(skipped);
+        completedChunks.incrementAndGet();
+    }
+
+    void chunkFailed(RuntimeException e) {
+        failedChunks.incrementAndGet();
+        if (error == null) {
+            error = e.getMessage();
+        }
+    }
+
+    void finish() {
+        finishedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public PriceRule getRule() {
+        return rule;
+    }
+
+    public Status getStatus() {
+        if (finishedAt == null) {
+            return Status.RUNNING;
+        }
+        return failedChunks.get() > 0 ? Status.FAILED : Status.COMPLETED;
+    }
+
+    public int getTotalChunks() {
+        return totalChunks;
+    }
+
+    public int getCompletedChunks() {
+        return completedChunks.get();
+    }
+
+    public int getFailedChunks() {
+        return failedChunks.get();
+    }
+
+    public long getProductsScanned() {
+        return productsScanned.get();
+    }
+
+    public long getProductsUpdated() {
+        return productsUpdated.get();
+    }
+
+    /** 价格不变、超出范围或读取后被并发修改而跳过的产品数 */
+    public long getProductsSkipped() {
+        return productsSkipped.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /** 每秒更新的产品数 */
+    public double getThroughput() {
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        double seconds = Math.max(Duration.between(startedAt, end).toNanos(), 1) / 1e9;
+        return productsUpdated.get() / seconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 已有调价任务在运行时抛出，映射为 409 Conflict
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "已有调价任务正在运行")
+public class PriceRuleJobRunningException extends RuntimeException {
+
+    public PriceRuleJobRunningException(String jobId) {
+        super("调价任务正在运行: " + jobId);
+    }
+}
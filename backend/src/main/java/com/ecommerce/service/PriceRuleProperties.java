@@ -0,0 +1,45 @@
+package com.ecommerce.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 批量调价任务配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.price-rules")
+public class PriceRuleProperties {
+
+    /** 每个分块覆盖的ID区间宽度；每个分块在独立的事务中提交 */
+    private int chunkSize = 500;
+
+    /**
+     * 并行处理的分块数。每个分块占用一个写连接，应小于写连接池大小，为 API 的写请求留出连接
+     */
+    private int parallelism = 2;
+
+    /** 预览返回的价格变化样例数 */
+    private int previewSampleSize = 20;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getPreviewSampleSize() {
+        return previewSampleSize;
+    }
+
+    public void setPreviewSampleSize(int previewSampleSize) {
+        this.previewSampleSize = previewSampleSize;
+    }
+}
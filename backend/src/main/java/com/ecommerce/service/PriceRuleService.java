@@ -0,0 +1,271 @@
+package com.ecommerce.service;
+
+import com.ecommerce.cache.ProductChangeLog;
+import com.ecommerce.service.PricePreview.PriceChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 按分类批量调价
+ * 任务把分类的ID区间划分为固定宽度的分块，在专用的 ForkJoinPool 中并行处理：
+ * 每个分块读取区间内的产品、计算新价格，以一次 JDBC 批量更新写回，并在独立的事务中提交，
+ * 大规模调价不会形成一个长事务。更新带有原价格条件，读取之后被并发修改过的产品跳过。
+ * 每个分块同时写入产品变更日志，提交后更新本实例的缓存，其他实例经变更日志同步。
+ * 同一时间只运行一个任务
+ */
+@Service
+@EnableConfigurationProperties(PriceRuleProperties.class)
+public class PriceRuleService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceRuleService.class);
+
+    private static final int RETAINED_JOBS = 20;
+
+    private final PriceRuleProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductChangeLog changeLog;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate chunkTransaction;
+    private final ForkJoinPool pool;
+
+    private final AtomicReference<PriceRuleJob> running = new AtomicReference<>();
+    private final Map<String, PriceRuleJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PriceRuleJob> eldest) {
+            return size() > RETAINED_JOBS;
+        }
+    };
+
+    private final Counter productsUpdated;
+    private final Timer chunkTimer;
+
+    public PriceRuleService(PriceRuleProperties properties,
+                            JdbcTemplate jdbcTemplate,
+                            ProductChangeLog changeLog,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pool = new ForkJoinPool(properties.getParallelism());
+        this.productsUpdated = Counter.builder("price.rule.products.updated")
+                .description("调价任务更新的产品数")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("price.rule.chunk.duration")
+                .description("调价任务单个分块（读取、计算、批量更新、提交）的耗时")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 预览规则的效果，不修改数据
+     */
+    public PricePreview preview(PriceRule rule) {
+        int sampleSize = properties.getPreviewSampleSize();
+        List<PriceChange> sample = new ArrayList<>(sampleSize);
+        long[] counts = new long[2];
+        BigDecimal[] totals = {BigDecimal.ZERO, BigDecimal.ZERO};
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                "SELECT id, name, price FROM products WHERE category = ? ORDER BY category, id", rs -> {
+                    BigDecimal oldPrice = rs.getBigDecimal("price");
+                    BigDecimal newPrice = rule.apply(oldPrice);
+                    counts[0]++;
+                    totals[0] = totals[0].add(oldPrice);
+                    if (isApplicable(oldPrice, newPrice)) {
+                        counts[1]++;
+                        totals[1] = totals[1].add(newPrice);
+                        if (sample.size() < sampleSize) {
+                            sample.add(new PriceChange(rs.getLong("id"), rs.getString("name"), oldPrice, newPrice));
+                        }
+                    } else {
+                        totals[1] = totals[1].add(oldPrice);
+                    }
+                }, rule.category()));
+        return new PricePreview(rule, counts[0], counts[1], totals[0], totals[1], sample);
+    }
+
+    /**
+     * 启动调价任务，立即返回；进度通过 findJob 查询
+     * @throws PriceRuleJobRunningException 已有任务在运行时
+     */
+    public PriceRuleJob start(PriceRule rule) {
+        PriceRuleJob current = running.get();
+        if (current != null) {
+            throw new PriceRuleJobRunningException(current.getId());
+        }
+        List<long[]> chunks = readOnlyTransaction.execute(status -> jdbcTemplate.query(
+                "SELECT MIN(id), MAX(id) FROM products WHERE category = ?", rs -> {
+                    List<long[]> ranges = new ArrayList<>();
+                    rs.next();
+                    long min = rs.getLong(1);
+                    if (rs.wasNull()) {
+                        return ranges;
+                    }
+                    long max = rs.getLong(2);
+                    for (long from = min; from <= max; from += properties.getChunkSize()) {
+                        ranges.add(new long[]{from, Math.min(max, from + properties.getChunkSize() - 1)});
+                    }
+                    return ranges;
+                }, rule.category()));
+        PriceRuleJob job = new PriceRuleJob(UUID.randomUUID().toString(), rule, chunks.size());
+        if (!running.compareAndSet(null, job)) {
+            throw new PriceRuleJobRunningException(running.get().getId());
+        }
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+        log.info("开始调价任务 {}: 分类 {}, 调整 {}%, {} 个分块",
+                job.getId(), rule.category(), rule.adjustmentPercent(), chunks.size());
+        pool.execute(new JobTask(job, chunks));
+        return job;
+    }
+
+    public Optional<PriceRuleJob> findJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("停机时调价任务仍在运行，未提交的分块将被放弃");
+        }
+    }
+
+    private static boolean isApplicable(BigDecimal oldPrice, BigDecimal newPrice) {
+        return newPrice.compareTo(oldPrice) != 0 && newPrice.compareTo(PriceRule.MAX_PRICE) <= 0;
+    }
+
+    /**
+     * 处理一个分块：读取、计算、批量更新并提交，提交后更新本实例的缓存
+     */
+    private void processChunk(PriceRuleJob job, long fromId, long toId) {
+        Timer.Sample sample = Timer.start();
+        try {
+            long[] scanned = new long[1];
+            List<Long> updated = chunkTransaction.execute(status -> {
+                List<Long> ids = new ArrayList<>();
+                List<Object[]> batch = new ArrayList<>();
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.query("SELECT id, price FROM products WHERE category = ? AND id BETWEEN ? AND ?", rs -> {
+                    scanned[0]++;
+                    BigDecimal oldPrice = rs.getBigDecimal("price");
+                    BigDecimal newPrice = job.getRule().apply(oldPrice);
+                    if (isApplicable(oldPrice, newPrice)) {
+                        ids.add(rs.getLong("id"));
+                        batch.add(new Object[]{newPrice, now, rs.getLong("id"), oldPrice});
+                    }
+                }, job.getRule().category(), fromId, toId);
+                if (batch.isEmpty()) {
+                    return ids;
+                }
+                int[] counts = jdbcTemplate.batchUpdate(
+                        "UPDATE products SET price = ?, updated_at = ? WHERE id = ? AND price = ?", batch);
+                List<Long> changed = new ArrayList<>(ids.size());
+                for (int i = 0; i < counts.length; i++) {
+                    // 驱动未返回逐行结果时（SUCCESS_NO_INFO）按已更新处理
+                    if (counts[i] != 0) {
+                        changed.add(ids.get(i));
+                    }
+                }
+                changeLog.recordAll(changed, ProductChangedEvent.ChangeType.UPDATED);
+                return changed;
+            });
+            changeLog.invalidate(updated);
+            productsUpdated.increment(updated.size());
+            job.chunkCompleted(scanned[0], updated.size(), scanned[0] - updated.size());
+        } catch (RuntimeException e) {
+            log.warn("调价任务 {} 的分块 [{}, {}] 失败: {}", job.getId(), fromId, toId, e.getMessage());
+            job.chunkFailed(e);
+        } finally {
+            sample.stop(chunkTimer);
+        }
+    }
+
+    /**
+     * 任务根节点：处理全部分块后结束任务
+     */
+    private final class JobTask extends RecursiveAction {
+
+        private final PriceRuleJob job;
+        private final List<long[]> chunks;
+
+        JobTask(PriceRuleJob job, List<long[]> chunks) {
+            this.job = job;
+            this.chunks = chunks;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                if (!chunks.isEmpty()) {
+                    new ChunkTask(job, chunks, 0, chunks.size()).invoke();
+                }
+            } finally {
+                job.finish();
+                running.set(null);
+                log.info("调价任务 {} 结束: {}, 更新 {} 个产品, 跳过 {} 个, 失败分块 {} 个",
+                        job.getId(), job.getStatus(), job.getProductsUpdated(), job.getProductsSkipped(),
+                        job.getFailedChunks());
+            }
+        }
+    }
+
+    /**
+     * 对分块列表二分，直到单个分块
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private final PriceRuleJob job;
+        private final List<long[]> chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(PriceRuleJob job, List<long[]> chunks, int from, int to) {
+            this.job = job;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                long[] range = chunks.get(from);
+                processChunk(job, range[0], range[1]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChunkTask(job, chunks, from, middle), new ChunkTask(job, chunks, middle, to));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+
+/**
+ * 产品变更事件，由 ProductService 在写事务中发布
+ * 监听方应使用 @TransactionalEventListener 在提交后处理，避免看到回滚的数据
+ *
+ * @param type      变更类型
+ * @param productId 产品ID
+ * @param product   变更后的产品，删除时为 null
+ */
+public record ProductChangedEvent(ChangeType type, Long productId, Product product) {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(ChangeType.CREATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(ChangeType.UPDATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(ChangeType.DELETED, productId, null);
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次 CSV 导入任务的进度和行错误报告
+ * 计数只由导入线程写入，查询线程读取
+ */
+public class ProductImportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        /** 文件已全部处理；被拒绝的行见错误报告 */
+        COMPLETED,
+        /** 文件格式错误或批次写入失败而中止；已提交的批次不会回滚 */
+        FAILED
+    }
+
+    /**
+     * 被拒绝的行
+     * @param line CSV 中的行号（表头为第 1 行）
+     * @param message 拒绝原因
+     */
+    public record RowError(long line, String message) {
+    }
+
+    private final String id;
+    private final long bytesTotal;
+    private final int maxErrors;
+    private final List<RowError> errors = new ArrayList<>();
+    private final Instant submittedAt = Instant.now();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private volatile long bytesRead;
+    private volatile long rowsRead;
+    private volatile long rowsImported;
+    private volatile long rowsRejected;
+
+    ProductImportJob(String id, long bytesTotal, int maxErrors) {
+        this.id = id;
+        this.bytesTotal = bytesTotal;
+        this.maxErrors = maxErrors;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+    }
+
+    void bytesRead(long bytes) {
+        bytesRead = bytes;
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void rowsImported(int count) {
+        rowsImported += count;
+    }
+
+    void rowRejected(long line, String message) {
+        rowsRejected++;
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+
+    void fail(String message) {
+        error = message;
+    }
+
+    void finish() {
+        finishedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        if (startedAt == null) {
+            return Status.QUEUED;
+        }
+        if (finishedAt == null) {
+            return Status.RUNNING;
+        }
+        return error == null ? Status.COMPLETED : Status.FAILED;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /** 已读取的字节占文件大小的百分比 */
+    public double getProgress() {
+        if (finishedAt != null || bytesTotal == 0) {
+            return finishedAt != null ? 100.0 : 0.0;
+        }
+        return Math.min(100.0, bytesRead * 100.0 / bytesTotal);
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /** 每秒导入的行数 */
+    public double getThroughput() {
+        if (startedAt == null) {
+            return 0.0;
+        }
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        double seconds = Math.max(Duration.between(startedAt, end).toNanos(), 1) / 1e9;
+        return rowsImported / seconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** 行错误报告，最多 ecommerce.import.max-errors 条，通过单独的端点返回 */
+    @JsonIgnore
+    public List<RowError> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+}
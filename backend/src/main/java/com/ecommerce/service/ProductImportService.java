@@ -0,0 +1,394 @@
+package com.ecommerce.service;
+
+import com.ecommerce.cache.ProductChangeLog;
+import com.ecommerce.cache.ProductIdFilter;
+import com.ecommerce.config.Bulkhead;
+import com.ecommerce.config.BulkheadFullException;
+import com.ecommerce.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * CSV 批量导入产品
+ * 上传在请求线程中以固定大小的缓冲区转存到磁盘，随后在单线程的导入隔离舱中逐条解析、校验，
+ * 按批次以 JDBC 批量插入并各自提交。解析由插入驱动，内存只保留一个批次，与文件大小无关；
+ * 导入逐个执行，排队的任务超过上限时拒绝上传（503），写连接池不会被导入占满。
+ * 每个批次同时写入产品变更日志，提交后更新本实例的缓存和ID过滤器，其他实例经变更日志同步
+ */
+@Service
+@EnableConfigurationProperties(ImportProperties.class)
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int RETAINED_JOBS = 20;
+
+    private static final Set<String> REQUIRED_COLUMNS = Set.of("name", "price");
+    private static final Set<String> KNOWN_COLUMNS =
+            Set.of("name", "description", "price", "stockquantity", "reorderthreshold", "category", "imageurl");
+
+    private static final String INSERT_SQL = "INSERT INTO products "
+            + "(name, description, price, stock_quantity, reorder_threshold, category, image_url, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ImportProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductChangeLog changeLog;
+    private final ProductIdFilter idFilter;
+    private final Validator validator;
+    private final TransactionTemplate chunkTransaction;
+    private final ThreadPoolTaskExecutor executor;
+    private final Bulkhead importBulkhead;
+
+    private final Map<String, ProductImportJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProductImportJob> eldest) {
+            return size() > RETAINED_JOBS;
+        }
+    };
+
+    private final Counter rowsImported;
+    private final Counter rowsRejected;
+
+    public ProductImportService(ImportProperties properties,
+                                JdbcTemplate jdbcTemplate,
+                                ProductChangeLog changeLog,
+                                ProductIdFilter idFilter,
+                                Validator validator,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeLog = changeLog;
+        this.idFilter = idFilter;
+        this.validator = validator;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(1);
+        this.executor.setMaxPoolSize(1);
+        this.executor.setQueueCapacity(properties.getQueueCapacity());
+        this.executor.setThreadNamePrefix("product-import-");
+        this.executor.setWaitForTasksToCompleteOnShutdown(true);
+        this.executor.setAwaitTerminationSeconds(10);
+        this.executor.initialize();
+        this.importBulkhead = new Bulkhead("import", executor, meterRegistry, false);
+        this.rowsImported = Counter.builder("product.import.rows")
+                .description("CSV 导入处理的行数")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.rowsRejected = Counter.builder("product.import.rows")
+                .description("CSV 导入处理的行数")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 转存上传的 CSV 并排队导入，立即返回；进度通过 findJob 查询
+     * @throws ImportTooLargeException 上传超过 max-upload-size 时
+     * @throws BulkheadFullException 排队的导入任务已满时
+     */
+    public ProductImportJob submit(InputStream upload) throws IOException {
+        Path file = spool(upload);
+        ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), Files.size(file),
+                properties.getMaxErrors());
+        try {
+            importBulkhead.submit(() -> {
+                run(job, file);
+                return job;
+            });
+        } catch (BulkheadFullException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+        log.info("CSV 导入任务 {} 已排队: {} 字节", job.getId(), job.getBytesTotal());
+        return job;
+    }
+
+    public Optional<ProductImportJob> findJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 以固定大小的缓冲区把上传复制到暂存文件，超过上限时删除并拒绝
+     */
+    private Path spool(InputStream upload) throws IOException {
+        Path dir = properties.getSpoolDir() == null
+                ? Path.of(System.getProperty("java.io.tmpdir"))
+                : Path.of(properties.getSpoolDir());
+        Path file = Files.createTempFile(dir, "product-import-", ".csv");
+        long maxBytes = properties.getMaxUploadSize().toBytes();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            long total = 0;
+            int n;
+            while ((n = upload.read(buffer)) != -1) {
+                total += n;
+                if (total > maxBytes) {
+                    throw new ImportTooLargeException(maxBytes);
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private void run(ProductImportJob job, Path file) {
+        job.start();
+        log.info("开始 CSV 导入任务 {}", job.getId());
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file), job);
+             CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Header header = readHeader(csv);
+            List<Product> chunk = new ArrayList<>(properties.getChunkSize());
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                job.rowRead();
+                String problem = toProduct(record, header, chunk);
+                if (problem != null) {
+                    job.rowRejected(csv.recordLine(), problem);
+                    rowsRejected.increment();
+                }
+                if (chunk.size() == properties.getChunkSize()) {
+                    insertChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(job, chunk);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("CSV 导入任务 {} 中止: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            job.finish();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("删除导入暂存文件 {} 失败: {}", file, e.getMessage());
+            }
+            log.info("CSV 导入任务 {} 结束: {}, 导入 {} 行, 拒绝 {} 行",
+                    job.getId(), job.getStatus(), job.getRowsImported(), job.getRowsRejected());
+        }
+    }
+
+    /**
+     * 读取表头
+     * 列名不区分大小写，下划线、连字符和空格被忽略，stock_quantity 与 stockQuantity 等价；未知的列被忽略
+     */
+    private Header readHeader(CsvReader csv) throws IOException {
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV 为空，缺少表头");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replaceAll("[_\\-\\s]", "").toLowerCase(Locale.ROOT);
+            if (KNOWN_COLUMNS.contains(name)) {
+                columns.put(name, i);
+            }
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV 表头缺少列: " + required);
+            }
+        }
+        return new Header(columns, header.size());
+    }
+
+    /**
+     * 把一条记录转换为产品并按实体约束校验，通过时加入批次
+     * @return 拒绝原因，通过时为 null
+     */
+    private String toProduct(List<String> record, Header header, List<Product> chunk) {
+        if (record.size() != header.width()) {
+            return "列数应为 " + header.width() + "，实际为 " + record.size();
+        }
+        Map<String, Integer> columns = header.columns();
+        Product product = new Product();
+        product.setName(field(record, columns, "name"));
+        product.setDescription(field(record, columns, "description"));
+        product.setCategory(field(record, columns, "category"));
+        product.setImageUrl(field(record, columns, "imageurl"));
+        String price = field(record, columns, "price");
+        if (price != null) {
+            try {
+                product.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                return "价格格式无效: " + price;
+            }
+            if (product.getPrice().scale() > 2) {
+                return "价格最多两位小数: " + price;
+            }
+            if (product.getPrice().compareTo(PriceRule.MAX_PRICE) > 0) {
+                return "价格超出范围: " + price;
+            }
+        }
+        String stock = field(record, columns, "stockquantity");
+        if (stock != null) {
+            try {
+                product.setStockQuantity(Integer.valueOf(stock));
+            } catch (NumberFormatException e) {
+                return "库存数量格式无效: " + stock;
+            }
+        }
+        String reorderThreshold = field(record, columns, "reorderthreshold");
+        if (reorderThreshold != null) {
+            try {
+                product.setReorderThreshold(Integer.valueOf(reorderThreshold));
+            } catch (NumberFormatException e) {
+                return "补货阈值格式无效: " + reorderThreshold;
+            }
+        }
+        Set<ConstraintViolation<Product>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        chunk.add(product);
+        return null;
+    }
+
+    /**
+     * 列不存在或值为空白时返回 null
+     */
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 在独立的事务中批量插入一个批次并写入变更日志，提交后更新本实例的缓存和ID过滤器
+     */
+    private void insertChunk(ProductImportJob job, List<Product> chunk) {
+        List<Long> ids = chunkTransaction.execute(status -> {
+            List<Long> created = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Product product : chunk) {
+                        ps.setString(1, product.getName());
+                        ps.setString(2, product.getDescription());
+                        ps.setBigDecimal(3, product.getPrice());
+                        ps.setInt(4, product.getStockQuantity());
+                        ps.setObject(5, product.getReorderThreshold(), Types.INTEGER);
+                        ps.setString(6, product.getCategory());
+                        ps.setString(7, product.getImageUrl());
+                        ps.setTimestamp(8, now);
+                        ps.setTimestamp(9, now);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    List<Long> keys = new ArrayList<>(chunk.size());
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            keys.add(rs.getLong(1));
+                        }
+                    }
+                    return keys;
+                }
+            });
+            changeLog.recordAll(created, ProductChangedEvent.ChangeType.CREATED);
+            return created;
+        });
+        for (Long id : ids) {
+            idFilter.add(id);
+        }
+        changeLog.invalidate(ids);
+        job.rowsImported(chunk.size());
+        rowsImported.increment(chunk.size());
+    }
+
+    /**
+     * CSV 表头：已知列名到下标的映射，以及每条记录应有的列数
+     */
+    private record Header(Map<String, Integer> columns, int width) {
+    }
+
+    /**
+     * 记录已从暂存文件读取的字节数，作为任务进度
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final ProductImportJob job;
+        private long count;
+
+        CountingInputStream(InputStream in, ProductImportJob job) {
+            super(in);
+            this.job = job;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                job.bytesRead(++count);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+                job.bytesRead(count);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+
+/**
+ * 批量查询中单个ID的结果
+ *
+ * @param id      请求的产品ID
+ * @param product 找到的产品，不存在时为 null
+ */
+public record ProductLookup(Long id, Product product) {
+
+    public boolean found() {
+        return product != null;
+    }
+}
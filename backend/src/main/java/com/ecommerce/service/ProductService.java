@@ -1,12 +1,26 @@
 package com.ecommerce.service;
 
+import com.ecommerce.cache.ProductCache;
+import com.ecommerce.cache.ProductIdFilter;
+import com.ecommerce.cache.ProductReadModel;
+import com.ecommerce.cache.RelatedProductsIndex;
+import com.ecommerce.cache.SingleFlight;
+import com.ecommerce.cache.TrendingProducts;
+import com.ecommerce.cache.TrendingProducts.HotProduct;
+import com.ecommerce.lifecycle.Deadline;
 import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductReplicaReader;
 import com.ecommerce.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -14,27 +28,192 @@ import java.util.Optional;
 public class ProductService {
     
     private final ProductRepository productRepository;
+    private final ProductReplicaReader replicaReader;
+    private final ProductCache productCache;
+    private final ProductReadModel readModel;
+    private final SingleFlight singleFlight;
+    private final ProductIdFilter idFilter;
+    private final TrendingProducts trending;
+    private final RelatedProductsIndex relatedIndex;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          ProductReplicaReader replicaReader,
+                          ProductCache productCache,
+                          ProductReadModel readModel,
+                          SingleFlight singleFlight,
+                          ProductIdFilter idFilter,
+                          TrendingProducts trending,
+                          RelatedProductsIndex relatedIndex,
+                          ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.replicaReader = replicaReader;
+        this.productCache = productCache;
+        this.readModel = readModel;
+        this.singleFlight = singleFlight;
+        this.idFilter = idFilter;
+        this.trending = trending;
+        this.relatedIndex = relatedIndex;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    /**
+     * 并发未命中合并的键：带上缓存的 stamp，写操作之后开始的读取不会加入写之前发起的加载
+     */
+    private record VersionedKey(Long id, long stamp) {
     }
     
     /**
      * 获取所有产品
      * @return 所有产品的列表
      */
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        if (readModel.isReady()) {
+            return readModel.findAll();
+        }
+        Optional<List<Product>> cached = productCache.getAll();
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        // 全表加载之前检查截止时间，放弃了的请求不再占用连接
+        Deadline.checkCurrent();
+        long stamp = productCache.stamp();
+        return singleFlight.execute("product-list", stamp, () -> {
+            List<Product> products = List.copyOf(readListFromReplica()
+                    ? replicaReader.findAll() : productRepository.findAll());
+            productCache.putAllIfFresh(products, stamp);
+            return products;
+        });
     }
     
     /**
-     * 根据ID获取产品
+     * 根据ID获取产品，找到时计入热门产品统计
      * @param id 产品ID
      * @return 如果找到则包含产品的Optional对象
      */
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        Optional<Product> product = findProductById(id);
+        if (product.isPresent()) {
+            trending.recordView(id);
+        }
+        return product;
+    }
+    
+    /**
+     * 获取热门产品
+     * @param limit 最多返回的产品数
+     * @return 按估计访问次数从高到低排列的产品，已删除的产品不返回
+     */
+    @Transactional(readOnly = true)
+    public List<TrendingProduct> getTrendingProducts(int limit) {
+        List<HotProduct> hot = trending.top(limit);
+        if (hot.isEmpty()) {
+            return List.of();
+        }
+        List<ProductLookup> lookups = getProductsByIds(hot.stream().map(HotProduct::productId).toList());
+        List<TrendingProduct> results = new ArrayList<>(hot.size());
+        for (int i = 0; i < hot.size(); i++) {
+            if (lookups.get(i).found()) {
+                results.add(new TrendingProduct(lookups.get(i).product(), hot.get(i).views()));
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * 获取同一分类中价格最接近的有货产品
+     * @param id 产品ID
+     * @param limit 最多返回的产品数
+     * @return 产品不存在时为空；相似产品索引未就绪时为空列表
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<Product>> getRelatedProducts(Long id, int limit) {
+        Optional<List<Long>> relatedIds = relatedIndex.related(id, limit);
+        if (relatedIds.isEmpty()) {
+            return findProductById(id).map(product -> List.of());
+        }
+        List<Product> products = new ArrayList<>(relatedIds.get().size());
+        for (ProductLookup lookup : getProductsByIds(relatedIds.get())) {
+            if (lookup.found()) {
+                products.add(lookup.product());
+            }
+        }
+        return Optional.of(products);
+    }
+    
+    private Optional<Product> findProductById(Long id) {
+        if (readModel.isReady()) {
+            return readModel.findById(id);
+        }
+        Optional<Product> cached = productCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        if (idFilter.isDefinitelyAbsent(id)) {
+            return Optional.empty();
+        }
+        long stamp = productCache.stamp();
+        return singleFlight.execute("product", new VersionedKey(id, stamp), () -> {
+            Optional<Product> product = readFromReplica(id)
+                    ? replicaReader.findById(id) : productRepository.findById(id);
+            product.ifPresentOrElse(p -> productCache.putIfFresh(p, stamp), idFilter::recordFalsePositive);
+            return product;
+        });
+    }
+    
+    /**
+     * 产品未命中缓存时是否从只读副本读取。结果会放入共享的缓存，而失效之后副本可能还没有应用对应的修改，
+     * 所以最近失效过的产品读主库；须在取得 stamp 之后调用，判断之后发生的失效由 putIfFresh 处理
+     */
+    private boolean readFromReplica(Long id) {
+        return replicaReader.isEnabled() && !productCache.invalidatedWithin(id, replicaReader.maxLag());
+    }
+
+    /**
+     * 产品列表未命中缓存时是否从只读副本读取；任何产品最近失效过时读主库
+     */
+    private boolean readListFromReplica() {
+        return replicaReader.isEnabled() && !productCache.listInvalidatedWithin(replicaReader.maxLag());
+    }
+    
+    /**
+     * 按ID批量获取产品
+     * 缓存命中的直接返回，未命中且未被ID过滤器排除的用一次 findAllById 查询
+     * @param ids 产品ID，可以重复
+     * @return 与请求顺序一致的结果，不存在的产品标记为未找到
+     */
+    @Transactional(readOnly = true)
+    public List<ProductLookup> getProductsByIds(List<Long> ids) {
+        Map<Long, Product> found = new HashMap<>();
+        if (readModel.isReady()) {
+            for (Long id : new LinkedHashSet<>(ids)) {
+                readModel.findById(id).ifPresent(product -> found.put(id, product));
+            }
+        } else {
+            List<Long> misses = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(ids)) {
+                productCache.get(id).ifPresentOrElse(product -> found.put(id, product), () -> {
+                    if (!idFilter.isDefinitelyAbsent(id)) {
+                        misses.add(id);
+                    }
+                });
+            }
+            if (!misses.isEmpty()) {
+                long stamp = productCache.stamp();
+                for (Product product : productRepository.findAllById(misses)) {
+                    found.put(product.getId(), product);
+                    productCache.putIfFresh(product, stamp);
+                }
+            }
+        }
+        List<ProductLookup> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            results.add(new ProductLookup(id, found.get(id)));
+        }
+        return results;
     }
     
     /**
@@ -45,7 +224,9 @@ public class ProductService {
     public Product createProduct(Product product) {
         // 确保新产品的ID为null
         product.setId(null);
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedProduct));
+        return savedProduct;
     }
     
     /**
@@ -57,24 +238,34 @@ public class ProductService {
     public Optional<Product> updateProduct(Long id, Product productDetails) {
         return productRepository.findById(id)
                 .map(existingProduct -> {
-                    existingProduct.setName(productDetails.getName());
-                    existingProduct.setDescription(productDetails.getDescription());
-                    existingProduct.setPrice(productDetails.getPrice());
-                    existingProduct.setStockQuantity(productDetails.getStockQuantity());
-                    existingProduct.setCategory(productDetails.getCategory());
-                    existingProduct.setImageUrl(productDetails.getImageUrl());
-                    return productRepository.save(existingProduct);
+                    copyDetails(productDetails, existingProduct);
+                    Product savedProduct = productRepository.save(existingProduct);
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(savedProduct));
+                    return savedProduct;
                 });
     }
     
+    /**
+     * 把更新请求中可修改的字段复制到目标产品，ID和时间戳不变
+     */
+    static void copyDetails(Product source, Product target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setPrice(source.getPrice());
+        target.setStockQuantity(source.getStockQuantity());
+        target.setReorderThreshold(source.getReorderThreshold());
+        target.setCategory(source.getCategory());
+        target.setImageUrl(source.getImageUrl());
+    }
+    
     /**
      * 删除产品
      * @param id 产品ID
      * @return 如果产品被删除则返回true，否则返回false
      */
     public boolean deleteProduct(Long id) {
-        if (productRepository.existsById(id)) {
-            productRepository.deleteById(id);
+        if (productRepository.deleteProductById(id) > 0) {
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
             return true;
         }
         return false;
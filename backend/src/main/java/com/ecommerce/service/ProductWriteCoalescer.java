@@ -0,0 +1,276 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.Bulkhead;
+import com.ecommerce.model.Product;
+import com.ecommerce.service.WriteCoalescingProperties.Durability;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 合并同一产品的连续更新
+ * 第一个更新到达时开启 window 长的窗口，窗口内的更新后到者覆盖先到者（PUT 是整体替换），
+ * 窗口结束时在写隔离舱中以一个事务写入最后的值。自动调价等频繁更新同一产品的调用方由此
+ * 把每秒多个事务合并为一个，减少行锁争用和 binlog 量。
+ * 同一产品同时只写入一个批次：上一批次尚未提交时，新窗口继续合并，等上一批次完成后再写入，
+ * 较早的值不会在较晚的值之后提交。
+ *
+ * durability=commit 时调用方等到提交后才得到响应；durability=accepted 时立即响应，
+ * 待写入的产品作为本实例读取的覆盖层，直到提交后由 ProductChangedEvent 更新的缓存接替
+ */
+@Component
+@EnableConfigurationProperties(WriteCoalescingProperties.class)
+public class ProductWriteCoalescer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteCoalescer.class);
+
+    /** 一个产品在当前窗口内合并的更新，只在 pending 的 compute 中修改 */
+    private static final class Batch {
+
+        Product latest;
+        /** 待写入的产品，供读取覆盖；仅 accepted 模式，产品被删除后为 null */
+        volatile Product overlay;
+        int merged;
+        final List<CompletableFuture<Optional<Product>>> waiters = new ArrayList<>();
+        /** 窗口已结束，等待同一产品的上一批次写入完成 */
+        volatile boolean due;
+        /** 写入及其后续处理完成，包括因此开始写入的下一批次（停机时在当前线程中写入的情况） */
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+
+    private final WriteCoalescingProperties properties;
+    private final ProductService productService;
+    private final Bulkhead writeBulkhead;
+    private final TaskScheduler taskScheduler;
+    private final Counter merged;
+    private final Counter flushed;
+    private final Counter failed;
+
+    /** 窗口尚未结束的批次 */
+    private final ConcurrentHashMap<Long, Batch> pending = new ConcurrentHashMap<>();
+    /** 正在写入的批次，提交前仍作为读取的覆盖层 */
+    private final ConcurrentHashMap<Long, Batch> flushing = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean stopping;
+
+    public ProductWriteCoalescer(WriteCoalescingProperties properties,
+                                 ProductService productService,
+                                 @Qualifier("writeBulkhead") Bulkhead writeBulkhead,
+                                 TaskScheduler taskScheduler,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.productService = productService;
+        this.writeBulkhead = writeBulkhead;
+        this.taskScheduler = taskScheduler;
+        this.merged = Counter.builder("product.write.coalesced")
+                .description("合并到已有窗口、因此省去一个事务的产品更新数")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("product.write.coalescing.flushes")
+                .description("合并窗口结束后写入的批次数")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.failed = Counter.builder("product.write.coalescing.flushes")
+                .description("合并窗口结束后写入的批次数")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public Durability getDurability() {
+        return properties.getDurability();
+    }
+
+    /**
+     * 把更新加入产品的合并窗口
+     * @return commit 模式下在合并后的更新提交后完成，结果为提交后的产品；
+     *         accepted 模式下立即完成，结果为待写入的产品。产品不存在时为空
+     */
+    public CompletableFuture<Optional<Product>> update(Long id, Product details) {
+        Product overlay = null;
+        if (properties.getDurability() == Durability.ACCEPTED) {
+            Optional<Product> base = pending(id)
+                    .or(() -> Optional.ofNullable(productService.getProductsByIds(List.of(id)).get(0).product()));
+            if (base.isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            overlay = overlay(base.get(), details);
+        }
+        CompletableFuture<Optional<Product>> result = new CompletableFuture<>();
+        Product pendingOverlay = overlay;
+        pending.compute(id, (key, batch) -> {
+            if (batch == null) {
+                batch = new Batch();
+                taskScheduler.schedule(() -> flush(id, false), Instant.now().plus(properties.getWindow()));
+            } else {
+                batch.merged++;
+                merged.increment();
+            }
+            batch.latest = details;
+            batch.overlay = pendingOverlay;
+            if (pendingOverlay == null) {
+                batch.waiters.add(result);
+            }
+            return batch;
+        });
+        if (pendingOverlay != null) {
+            result.complete(Optional.of(pendingOverlay));
+        }
+        return result;
+    }
+
+    /**
+     * 尚未提交的待写入产品，仅 accepted 模式
+     */
+    public Optional<Product> pending(Long id) {
+        if (!properties.isEnabled() || properties.getDurability() != Durability.ACCEPTED) {
+            return Optional.empty();
+        }
+        Batch batch = pending.get(id);
+        if (batch == null) {
+            batch = flushing.get(id);
+        }
+        return batch == null ? Optional.empty() : Optional.ofNullable(batch.overlay);
+    }
+
+    /**
+     * 用待写入的产品替换批量查询的结果，仅 accepted 模式
+     */
+    public List<ProductLookup> withPending(List<ProductLookup> lookups) {
+        if (pending.isEmpty() && flushing.isEmpty()) {
+            return lookups;
+        }
+        List<ProductLookup> results = new ArrayList<>(lookups.size());
+        for (ProductLookup lookup : lookups) {
+            results.add(lookup.found() ? pending(lookup.id()).map(product -> new ProductLookup(lookup.id(), product))
+                    .orElse(lookup) : lookup);
+        }
+        return results;
+    }
+
+    /**
+     * 删除的产品不再从覆盖层读到；窗口结束时的写入找不到产品，不会重新创建
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.type() != ProductChangedEvent.ChangeType.DELETED) {
+            return;
+        }
+        pending.computeIfPresent(event.productId(), (key, batch) -> {
+            batch.overlay = null;
+            return batch;
+        });
+        Batch batch = flushing.get(event.productId());
+        if (batch != null) {
+            batch.overlay = null;
+        }
+    }
+
+    /**
+     * 窗口结束：先放入 flushing 再移出 pending，读取始终能看到覆盖层。
+     * 同一产品的上一批次仍在写入时只标记为 due，由上一批次完成时再写入
+     * @param inline 在当前线程中写入，而不是提交到写隔离舱
+     */
+    private void flush(Long id, boolean inline) {
+        Batch batch = pending.get(id);
+        if (batch == null) {
+            return;
+        }
+        // 先标记再占用 flushing：占用失败时，上一批次在移出 flushing 之后一定能看到标记
+        batch.due = true;
+        if (flushing.putIfAbsent(id, batch) != null) {
+            return;
+        }
+        pending.remove(id, batch);
+        CompletableFuture<Optional<Product>> write;
+        try {
+            write = inline
+                    ? CompletableFuture.completedFuture(productService.updateProduct(id, batch.latest))
+                    : writeBulkhead.submit(() -> productService.updateProduct(id, batch.latest));
+        } catch (RuntimeException e) {
+            write = CompletableFuture.failedFuture(e);
+        }
+        write.whenComplete((product, error) -> {
+            flushing.remove(id, batch);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                failed.increment();
+                log.error("合并的产品更新写入失败: 产品 {}, 合并了 {} 个更新", id, batch.merged + 1, cause);
+                batch.waiters.forEach(waiter -> waiter.completeExceptionally(cause));
+            } else {
+                flushed.increment();
+                batch.waiters.forEach(waiter -> waiter.complete(product));
+            }
+            Batch next = pending.get(id);
+            if (next != null && next.due) {
+                flush(id, stopping);
+            }
+            batch.done.complete(null);
+        });
+    }
+
+    private static Product overlay(Product base, Product details) {
+        Product product = new Product();
+        product.setId(base.getId());
+        product.setCreatedAt(base.getCreatedAt());
+        ProductService.copyDetails(details, product);
+        product.setUpdatedAt(LocalDateTime.now());
+        return product;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * 排空之后在当前线程中写入所有未结束的窗口；写隔离舱此时可能已暂停，不再向它提交。
+     * 上一批次仍在写入的产品由该批次完成时在其线程中写入，这里等待它们完成
+     */
+    @Override
+    public void stop() {
+        stopping = true;
+        List<Long> ids = List.copyOf(pending.keySet());
+        if (!ids.isEmpty()) {
+            log.info("停机前写入 {} 个合并窗口", ids.size());
+            ids.forEach(id -> flush(id, true));
+        }
+        while (!flushing.isEmpty()) {
+            flushing.values().forEach(batch -> batch.done.join());
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 在 DrainCoordinator（Integer.MAX_VALUE）之后停止
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+
+/**
+ * 热门产品
+ *
+ * @param product 产品
+ * @param views   本实例统计的衰减后估计访问次数
+ */
+public record TrendingProduct(Product product, long views) {
+}
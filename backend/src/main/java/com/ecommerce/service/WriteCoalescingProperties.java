@@ -0,0 +1,52 @@
+package com.ecommerce.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 产品更新合并配置
+ */
+@ConfigurationProperties(prefix = "ecommerce.write-coalescing")
+public class WriteCoalescingProperties {
+
+    public enum Durability {
+        /** 合并后的更新提交后才响应 200；窗口内的请求得到同一个提交后的产品 */
+        COMMIT,
+        /** 加入合并窗口后立即响应 202，本实例的读取返回待写入的产品；实例在窗口内崩溃时丢失这些更新 */
+        ACCEPTED
+    }
+
+    /** 是否合并同一产品在窗口内的 PUT 请求 */
+    private boolean enabled = false;
+
+    /** 合并窗口：同一产品的第一个更新到达后等待这段时间再写入，期间的更新后到者覆盖先到者 */
+    private Duration window = Duration.ofMillis(100);
+
+    /** 何时响应调用方 */
+    private Durability durability = Durability.COMMIT;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void setDurability(Durability durability) {
+        this.durability = durability;
+    }
+}
@@ -0,0 +1,47 @@
+-- 已有数据库的表结构升级（MySQL），可重复执行
+-- database/init.sql 只在数据卷首次初始化时执行；fast-startup 配置（ddl-auto: none）下由后端在启动时执行本脚本，
+-- 补齐此后新增的表、列和索引。也可以手动执行：mysql ecommerce < upgrade.sql
+-- MySQL 8.0 不支持 ADD COLUMN / CREATE INDEX IF NOT EXISTS，按 information_schema 判断后用预处理语句执行
+
+-- 产品变更日志
+CREATE TABLE IF NOT EXISTS product_changes (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    origin VARCHAR(64) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    INDEX idx_changed_at (changed_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 快照追赶按 updated_at 查询
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_updated_at') = 0,
+              'ALTER TABLE products ADD INDEX idx_updated_at (updated_at)',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- idx_category 由 (category) 改为 (category, id)
+SET @ddl = CASE
+    WHEN (SELECT COUNT(*) FROM information_schema.STATISTICS
+          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_category') = 0
+        THEN 'ALTER TABLE products ADD INDEX idx_category (category, id)'
+    WHEN (SELECT COUNT(*) FROM information_schema.STATISTICS
+          WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND INDEX_NAME = 'idx_category'
+            AND COLUMN_NAME = 'id') = 0
+        THEN 'ALTER TABLE products DROP INDEX idx_category, ADD INDEX idx_category (category, id)'
+    ELSE 'DO 0'
+END;
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 补货阈值
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'products' AND COLUMN_NAME = 'reorder_threshold') = 0,
+              'ALTER TABLE products ADD COLUMN reorder_threshold INT AFTER stock_quantity',
+              'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -30,6 +30,7 @@ import org.junit.jupiter.api.Assumptions;
  * 
  * Note: This test requires Docker and the backend image to be built.
  * Set ENABLE_E2E_TESTS=true to run these tests.
+ * Set BACKEND_IMAGE to test another image, e.g. the native build (ecommerce-backend:native).
  */
 public class EndToEndDataFlowPropertyTest extends PropertyTestBase {
     
@@ -86,7 +87,7 @@ public class EndToEndDataFlowPropertyTest extends PropertyTestBase {
         }
         
         // Start backend container
-        backendContainer = new GenericContainer<>(DockerImageName.parse("ecommerce-backend:latest"))
+        backendContainer = new GenericContainer<>(DockerImageName.parse(System.getenv().getOrDefault("BACKEND_IMAGE", "ecommerce-backend:latest")))
                 .withNetwork(network)
                 .withNetworkAliases("backend")
                 .withEnv("DB_HOST", "database")
@@ -0,0 +1,116 @@
+package com.ecommerce;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import net.jqwik.api.*;
+import net.jqwik.spring.JqwikSpringSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * ProductController 各接口的 SQL 语句数预算
+ * 关闭产品缓存和ID过滤器，每次调用都走数据库路径；语句数不应随产品数量增长（N+1）
+ */
+@JqwikSpringSupport
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ecommerce.QueryCounter",
+        "ecommerce.cache.enabled=false",
+        "ecommerce.id-filter.enabled=false"
+})
+@ActiveProfiles("test")
+public class QueryBudgetPropertyTest extends PropertyTestBase {
+
+    /** 列表：一次查询 */
+    private static final int LIST_BUDGET = 1;
+    /** 按ID查询：一次查询 */
+    private static final int GET_BUDGET = 1;
+    /** 批量查询：一次 IN 查询 */
+    private static final int BATCH_GET_BUDGET = 1;
+    /** 创建：插入产品 + 变更日志 */
+    private static final int CREATE_BUDGET = 2;
+    /** 更新：读取 + 更新产品 + 变更日志 */
+    private static final int UPDATE_BUDGET = 3;
+    /** 删除：一条 DELETE + 变更日志 */
+    private static final int DELETE_BUDGET = 2;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Property(tries = 20)
+    @Label("列表接口的语句数与产品数量无关")
+    void listStaysWithinBudget(@ForAll("productSets") List<Product> products) {
+        seed(products);
+
+        assertWithinBudget("GET /api/products", LIST_BUDGET,
+                () -> restTemplate.getForEntity("/api/products", String.class).getStatusCode());
+    }
+
+    @Property(tries = 20)
+    @Label("按ID查询和批量查询的语句数与产品数量无关")
+    void lookupsStayWithinBudget(@ForAll("productSets") List<Product> products) {
+        List<Product> saved = seed(products);
+        String ids = saved.stream().map(p -> p.getId().toString()).collect(Collectors.joining(","));
+
+        assertWithinBudget("GET /api/products/{id}", GET_BUDGET,
+                () -> restTemplate.getForEntity("/api/products/" + saved.get(0).getId(), String.class).getStatusCode());
+        assertWithinBudget("GET /api/products?ids=", BATCH_GET_BUDGET,
+                () -> restTemplate.getForEntity("/api/products?ids=" + ids, String.class).getStatusCode());
+    }
+
+    @Property(tries = 20)
+    @Label("写接口的语句数在预算之内")
+    void writesStayWithinBudget(@ForAll("productSets") List<Product> products, @ForAll("validProducts") Product details) {
+        List<Product> saved = seed(products);
+        Long id = saved.get(0).getId();
+
+        assertWithinBudget("POST /api/products", CREATE_BUDGET,
+                () -> restTemplate.postForEntity("/api/products", details, String.class).getStatusCode());
+        assertWithinBudget("PUT /api/products/{id}", UPDATE_BUDGET,
+                () -> restTemplate.exchange("/api/products/" + id, HttpMethod.PUT, new HttpEntity<>(details), String.class)
+                        .getStatusCode());
+        assertWithinBudget("DELETE /api/products/{id}", DELETE_BUDGET,
+                () -> restTemplate.exchange("/api/products/" + id, HttpMethod.DELETE, null, String.class)
+                        .getStatusCode());
+    }
+
+    @Provide
+    Arbitrary<List<Product>> productSets() {
+        return validProducts().list().ofMinSize(1).ofMaxSize(30);
+    }
+
+    @Provide
+    public Arbitrary<Product> validProducts() {
+        return super.validProducts();
+    }
+
+    private List<Product> seed(List<Product> products) {
+        productRepository.deleteAll();
+        return productRepository.saveAll(products);
+    }
+
+    private void assertWithinBudget(String endpoint, int budget, Supplier<HttpStatusCode> call) {
+        QueryCounter.start();
+        HttpStatusCode status;
+        List<String> statements;
+        try {
+            status = call.get();
+        } finally {
+            statements = QueryCounter.stop();
+        }
+        assert status.is2xxSuccessful() : String.format("%s 返回 %s", endpoint, status);
+        assert statements.size() <= budget : String.format("%s 发出 %d 条语句，预算为 %d:%n%s",
+                endpoint, statements.size(), budget, String.join("\n", statements));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ecommerce;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 记录 Hibernate 发出的 SQL 语句，用于检查接口的语句数预算
+ * 通过 spring.jpa.properties.hibernate.session_factory.statement_inspector 注册，由 Hibernate 按类名实例化，
+ * 因此状态是静态的。后台定时任务（变更日志轮询等）的语句不计入
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ConcurrentLinkedQueue<String> statements = new ConcurrentLinkedQueue<>();
+    private static volatile boolean recording;
+
+    @Override
+    public String inspect(String sql) {
+        if (recording && !Thread.currentThread().getName().startsWith("scheduling-")) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * 清空并开始记录
+     */
+    public static void start() {
+        statements.clear();
+        recording = true;
+    }
+
+    /**
+     * 停止记录，返回期间发出的语句
+     */
+    public static List<String> stop() {
+        recording = false;
+        return new ArrayList<>(statements);
+    }
+}
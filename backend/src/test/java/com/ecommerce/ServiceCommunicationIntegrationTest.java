@@ -22,6 +22,7 @@ import java.time.Duration;
  * Integration tests for service communication
  * Tests frontend-backend and backend-database communication
  * Validates: Requirements 4.3, 4.4, 6.3, 6.4
+ * Set BACKEND_IMAGE to test another image, e.g. the native build (ecommerce-backend:native).
  */
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class ServiceCommunicationIntegrationTest {
@@ -72,7 +73,7 @@ public class ServiceCommunicationIntegrationTest {
         }
         
         // Start backend container with network alias
-        backendContainer = new GenericContainer<>(DockerImageName.parse("ecommerce-backend:latest"))
+        backendContainer = new GenericContainer<>(DockerImageName.parse(System.getenv().getOrDefault("BACKEND_IMAGE", "ecommerce-backend:latest")))
                 .withNetwork(network)
                 .withNetworkAliases("backend")
                 .withEnv("DB_HOST", "database")
@@ -0,0 +1,147 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndOpen_ShouldRoundTripAllFields() throws IOException {
+        // 准备
+        Path path = directory.resolve("catalog.snapshot");
+        Product full = product(3L, "耳机 Pro", new BigDecimal("199.90"), LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123456000));
+        full.setDescription("降噪 🎧");
+        full.setCategory("Electronics");
+        full.setImageUrl("https://example.com/3.jpg");
+        Product sparse = product(7L, "Book", new BigDecimal("0.00"), LocalDateTime.of(2024, 5, 2, 8, 30));
+
+        // 执行
+        try (CatalogSnapshot.Writer writer = CatalogSnapshot.writer(path)) {
+            writer.append(full);
+            writer.append(sparse);
+            assertEquals(2, writer.commit());
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+
+        // 断言
+        assertEquals(2, snapshot.count());
+        assertEquals(LocalDateTime.of(2024, 5, 2, 8, 30), snapshot.watermark());
+        Product decoded = snapshot.find(3L);
+        assertEquals(full.getName(), decoded.getName());
+        assertEquals(full.getDescription(), decoded.getDescription());
+        assertEquals(full.getPrice(), decoded.getPrice());
+        assertEquals(full.getStockQuantity(), decoded.getStockQuantity());
+        assertEquals(full.getCategory(), decoded.getCategory());
+        assertEquals(full.getImageUrl(), decoded.getImageUrl());
+        assertEquals(full.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(full.getUpdatedAt(), decoded.getUpdatedAt());
+        assertNull(snapshot.find(7L).getDescription());
+        assertNull(snapshot.find(5L));
+    }
+
+    @Test
+    void find_ShouldLocateEveryProductInLargeSnapshot() throws IOException {
+        // 准备
+        Path path = directory.resolve("catalog.snapshot");
+        List<Long> ids = new ArrayList<>();
+        try (CatalogSnapshot.Writer writer = CatalogSnapshot.writer(path)) {
+            for (long id = 1; id <= 5000; id += 2) {
+                writer.append(product(id, "Product " + id, BigDecimal.valueOf(id, 2), LocalDateTime.now()));
+                ids.add(id);
+            }
+            writer.commit();
+        }
+
+        // 执行
+        CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+
+        // 断言
+        for (Long id : ids) {
+            assertEquals("Product " + id, snapshot.find(id).getName());
+            assertNull(snapshot.find(id + 1));
+        }
+    }
+
+    @Test
+    void writer_WhenNotCommitted_ShouldKeepPreviousSnapshot() throws IOException {
+        // 准备
+        Path path = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshot.Writer writer = CatalogSnapshot.writer(path)) {
+            writer.append(product(1L, "Old", BigDecimal.ONE, LocalDateTime.now()));
+            writer.commit();
+        }
+
+        // 执行：写入中途失败，未提交
+        try (CatalogSnapshot.Writer writer = CatalogSnapshot.writer(path)) {
+            writer.append(product(2L, "New", BigDecimal.ONE, LocalDateTime.now()));
+            assertThrows(IllegalArgumentException.class,
+                    () -> writer.append(product(1L, "Out of order", BigDecimal.ONE, LocalDateTime.now())));
+        }
+
+        // 断言
+        CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+        assertEquals(1, snapshot.count());
+        assertEquals("Old", snapshot.find(1L).getName());
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void attachSnapshot_ShouldExcludeProductsInvalidatedDuringCatchUpAndNotExpire() throws Exception {
+        // 准备
+        Path path = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshot.Writer writer = CatalogSnapshot.writer(path)) {
+            writer.append(product(1L, "First", BigDecimal.ONE, LocalDateTime.now()));
+            writer.append(product(2L, "Second", BigDecimal.ONE, LocalDateTime.now()));
+            writer.commit();
+        }
+        CacheProperties properties = new CacheProperties();
+        properties.setTtl(Duration.ofMillis(1));
+        ProductCache cache = new ProductCache(properties, mock(TrendingProducts.class), new SimpleMeterRegistry());
+
+        // 执行：追赶期间产品 2 被其他实例修改
+        cache.prepareSnapshot();
+        cache.evict(2L);
+        cache.attachSnapshot(CatalogSnapshot.open(path), List.of(), Set.of(), List.of());
+        Thread.sleep(10);
+
+        // 断言：快照不随 ttl 过期
+        assertEquals("First", cache.get(1L).orElseThrow().getName());
+        assertTrue(cache.get(2L).isEmpty());
+    }
+
+    @Test
+    void open_WhenFileIsNotSnapshot_ShouldFail() throws IOException {
+        Path path = directory.resolve("catalog.snapshot");
+        Files.writeString(path, "not a snapshot file, just some text padding");
+
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(path));
+    }
+
+    private Product product(Long id, String name, BigDecimal price, LocalDateTime updatedAt) {
+        Product product = new Product(name, null, price, 10, null, null);
+        product.setId(id);
+        product.setCreatedAt(updatedAt.minusDays(1));
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+}
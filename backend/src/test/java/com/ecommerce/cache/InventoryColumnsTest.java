@@ -0,0 +1,144 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.cache.InventoryReport.CategoryInventory;
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryColumnsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private InventoryColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        columns = new InventoryColumns(new InventoryAnalyticsProperties(), productRepository, jdbcTemplate,
+                transactionManager, meterRegistry);
+    }
+
+    @Test
+    void report_ShouldAggregatePerCategory() {
+        // 准备
+        columns.run(null);
+        columns.put(product(1L, "电子产品", "999.99", 3));
+        columns.put(product(2L, "电子产品", "29.99", 100));
+        columns.put(product(3L, "电子产品", "5000.00", 0));
+        columns.put(product(4L, null, "8.00", 5));
+
+        // 执行
+        InventoryReport report = columns.report();
+
+        // 断言
+        assertEquals(4, report.products());
+        assertEquals(108, report.units());
+        assertEquals(new BigDecimal("6038.97"), report.stockValue());
+        assertEquals(2, report.lowStock());
+        assertEquals(1, report.outOfStock());
+        CategoryInventory electronics = report.categories().get(0);
+        assertEquals("电子产品", electronics.category());
+        assertEquals(new BigDecimal("5998.97"), electronics.stockValue());
+        assertEquals(new BigDecimal("29.99"), electronics.minPrice());
+        assertEquals(new BigDecimal("5000.00"), electronics.maxPrice());
+        assertEquals(new BigDecimal("2009.99"), electronics.averagePrice());
+        assertArrayEquals(new long[]{0, 1, 0, 0, 1, 0, 1}, electronics.priceHistogram());
+        assertNull(report.categories().get(1).category());
+    }
+
+    @Test
+    void onProductChanged_ShouldKeepColumnsCompactAfterDeletes() {
+        // 准备
+        columns.run(null);
+        for (long id = 1; id <= 2000; id++) {
+            columns.put(product(id, "分类-" + (id % 3), "10.00", 1));
+        }
+
+        // 执行
+        for (long id = 1; id <= 2000; id += 2) {
+            columns.onProductChanged(ProductChangedEvent.deleted(id));
+        }
+        columns.onProductChanged(ProductChangedEvent.updated(product(2L, "分类-0", "20.00", 4)));
+
+        // 断言
+        InventoryReport report = columns.report();
+        assertEquals(1000, columns.size());
+        assertEquals(1000, report.products());
+        assertEquals(1003, report.units());
+        assertEquals(new BigDecimal("10070.00"), report.stockValue());
+    }
+
+    @Test
+    void onProductChanged_ShouldTrackReorderThresholdCrossings() {
+        // 准备
+        columns.run(null);
+        columns.put(product(1L, "电子产品", "99.00", 50, 20));
+        columns.put(product(2L, "电子产品", "19.00", 5, null));
+
+        // 执行
+        columns.onProductChanged(ProductChangedEvent.updated(product(1L, "电子产品", "99.00", 19, 20)));
+        columns.onProductChanged(ProductChangedEvent.updated(product(1L, "电子产品", "99.00", 3, 20)));
+        columns.onProductChanged(ProductChangedEvent.updated(product(2L, "家居用品", "19.00", 5, 8)));
+
+        // 断言
+        assertEquals(List.of(new ReorderItem(1L, "电子产品", 3, 20), new ReorderItem(2L, "家居用品", 5, 8)),
+                columns.belowReorder());
+        assertEquals(2, meterRegistry.get("product.stock.below.reorder").gauge().value());
+        assertEquals(2, crossings("below"));
+        assertEquals(2, columns.report().belowReorder());
+
+        // 执行
+        columns.onProductChanged(ProductChangedEvent.updated(product(1L, "电子产品", "99.00", 20, 20)));
+        columns.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        // 断言
+        assertTrue(columns.belowReorder().isEmpty());
+        assertEquals(0, meterRegistry.get("product.stock.below.reorder").gauge().value());
+        assertEquals(1, crossings("recovered"));
+        assertEquals(0, columns.report().belowReorder());
+    }
+
+    @Test
+    void report_BeforeLoad_ShouldThrowNotReady() {
+        // 执行、断言
+        assertThrows(InventoryNotReadyException.class, () -> columns.report());
+    }
+
+    private double crossings(String direction) {
+        return meterRegistry.get("product.stock.reorder.crossings").tag("direction", direction).counter().count();
+    }
+
+    private static Product product(Long id, String category, String price, int stock) {
+        return product(id, category, price, stock, null);
+    }
+
+    private static Product product(Long id, String category, String price, int stock, Integer reorderThreshold) {
+        Product product = new Product("产品" + id, null, new BigDecimal(price), stock, category, null);
+        product.setId(id);
+        product.setReorderThreshold(reorderThreshold);
+        return product;
+    }
+}
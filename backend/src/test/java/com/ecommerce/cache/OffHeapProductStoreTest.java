@@ -0,0 +1,169 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapProductStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    @Test
+    void put_ShouldGrowBufferAndKeepAllProductsReadable() {
+        // 准备：初始缓冲区只能放下几条记录
+        OffHeapProductStore store = new OffHeapProductStore(256, 16 << 20);
+
+        // 执行
+        for (long id = 1; id <= 2000; id++) {
+            assertTrue(store.put(product(id, "Product " + id, NOW)));
+        }
+
+        // 断言
+        assertEquals(2000, store.size());
+        assertTrue(store.capacityBytes() > 256);
+        for (long id = 1; id <= 2000; id++) {
+            assertEquals("Product " + id, store.get(id).getName());
+        }
+        assertNull(store.get(2001));
+        List<Product> all = store.getAll();
+        assertEquals(2000, all.size());
+        assertEquals(1L, all.get(0).getId());
+        assertEquals(2000L, all.get(1999).getId());
+    }
+
+    @Test
+    void put_WhenExistingRecordIsNewer_ShouldKeepExisting() {
+        // 准备
+        OffHeapProductStore store = new OffHeapProductStore(1024, 1 << 20);
+        store.put(product(1L, "Committed", NOW));
+
+        // 执行：后台刷新读到的旧版本
+        boolean written = store.put(product(1L, "Stale", NOW.minusSeconds(1)));
+
+        // 断言
+        assertFalse(written);
+        assertEquals("Committed", store.get(1L).getName());
+        assertTrue(store.put(product(1L, "Newer", NOW.plusSeconds(1))));
+        assertEquals("Newer", store.get(1L).getName());
+    }
+
+    @Test
+    void put_WhenRemoteUpdateInSameSecond_ShouldApplyDatabaseRow() {
+        // 准备：本实例的写入带毫秒，其他实例随后的写入在数据库中只保留到秒
+        OffHeapProductStore store = new OffHeapProductStore(1024, 1 << 20);
+        store.put(product(1L, "Local", NOW.plusNanos(200_000_000)));
+
+        // 执行：经变更日志重新加载的数据库行
+        boolean written = store.put(product(1L, "Remote", NOW));
+
+        // 断言
+        assertTrue(written);
+        assertEquals("Remote", store.get(1L).getName());
+    }
+
+    @Test
+    void removeIfOlderThan_ShouldKeepProductsCreatedAfterRefreshStarted() {
+        // 准备
+        OffHeapProductStore store = new OffHeapProductStore(1024, 1 << 20);
+        store.put(product(1L, "Old", NOW.minusMinutes(1)));
+        store.put(product(2L, "Created during refresh", NOW.plusSeconds(1)));
+
+        // 执行
+        store.removeIfOlderThan(1L, NOW);
+        store.removeIfOlderThan(2L, NOW);
+
+        // 断言
+        assertNull(store.get(1L));
+        assertNotNull(store.get(2L));
+    }
+
+    @Test
+    void put_WhenMostlyGarbage_ShouldCompactInsteadOfExceedingLimit() {
+        // 准备：上限 4MB，反复更新同一批产品产生大量垃圾
+        OffHeapProductStore store = new OffHeapProductStore(1 << 20, 4 << 20);
+        String description = "x".repeat(1000);
+
+        // 执行
+        for (int round = 0; round < 100; round++) {
+            for (long id = 1; id <= 100; id++) {
+                Product product = product(id, "Round " + round, NOW.plusSeconds(round));
+                product.setDescription(description);
+                store.put(product);
+            }
+        }
+
+        // 断言
+        assertEquals(100, store.size());
+        assertEquals("Round 99", store.get(50L).getName());
+        assertTrue(store.capacityBytes() <= 4 << 20);
+    }
+
+    @Test
+    void put_WhenLiveDataExceedsLimit_ShouldThrow() {
+        OffHeapProductStore store = new OffHeapProductStore(1024, 4096);
+
+        assertThrows(OffHeapProductStore.CapacityExceededException.class, () -> {
+            for (long id = 1; id <= 1000; id++) {
+                store.put(product(id, "Product " + id, NOW));
+            }
+        });
+    }
+
+    @Test
+    void get_WhenIdIsZero_ShouldReturnNull() {
+        // 准备：删除后空槽的值不应被 ID 0 读到
+        OffHeapProductStore store = new OffHeapProductStore(1024, 1 << 20);
+        for (long id = 1; id <= 20; id++) {
+            store.put(product(id, "Product " + id, NOW));
+        }
+        store.remove(7L);
+
+        // 执行 & 断言
+        assertNull(store.get(0L));
+        assertFalse(store.remove(0L));
+        assertEquals(19, store.size());
+    }
+
+    @Test
+    void index_ShouldMatchHashMapUnderRandomOperations() {
+        // 准备
+        LongIntHashIndex index = new LongIntHashIndex(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // 执行：键集中在小范围内，使探测链频繁交叠，覆盖删除后的前移逻辑
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                Integer previous = expected.remove(key);
+                assertEquals(previous == null ? LongIntHashIndex.NOT_FOUND : previous, index.remove(key));
+            } else {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                Integer previous = expected.put(key, value);
+                assertEquals(previous == null ? LongIntHashIndex.NOT_FOUND : previous, index.put(key, value));
+            }
+        }
+
+        // 断言
+        assertEquals(expected.size(), index.size());
+        for (long key = 1; key <= 5000; key++) {
+            assertEquals(expected.getOrDefault(key, LongIntHashIndex.NOT_FOUND), index.get(key));
+        }
+    }
+
+    private Product product(long id, String name, LocalDateTime updatedAt) {
+        Product product = new Product(name, null, new BigDecimal("9.99"), 1, "Books", null);
+        product.setId(id);
+        product.setCreatedAt(updatedAt);
+        product.setUpdatedAt(updatedAt);
+        return product;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ProductCacheTest {
+
+    private static final Duration LAG = Duration.ofSeconds(5);
+
+    @Test
+    void invalidatedWithin_ShouldOnlyReportChangedProducts() {
+        // 准备
+        ProductCache cache = new ProductCache(new CacheProperties(), mock(TrendingProducts.class), new SimpleMeterRegistry());
+        assertFalse(cache.listInvalidatedWithin(LAG));
+
+        // 执行
+        cache.evict(1L);
+
+        // 断言：其他产品的未命中仍可以读副本，列表随任何产品失效
+        assertTrue(cache.invalidatedWithin(1L, LAG));
+        assertFalse(cache.invalidatedWithin(2L, LAG));
+        assertTrue(cache.listInvalidatedWithin(LAG));
+        assertFalse(cache.invalidatedWithin(1L, Duration.ZERO));
+    }
+}
@@ -0,0 +1,176 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.ProductChange;
+import com.ecommerce.repository.ProductChangeRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeLogTest {
+
+    @Mock
+    private ProductChangeRepository changeRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private ProductJsonCache jsonCache;
+
+    @Mock
+    private ProductReadModel readModel;
+
+    @Mock
+    private ProductIdFilter idFilter;
+
+    @Mock
+    private RelatedProductsIndex relatedIndex;
+
+    @Mock
+    private InventoryColumns inventoryColumns;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private ChangeLogProperties properties;
+    private ProductChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChangeLogProperties();
+        changeLog = new ProductChangeLog(properties, changeRepository, productCache, jsonCache, readModel, idFilter,
+                relatedIndex, inventoryColumns, jdbcTemplate, transactionManager, taskScheduler, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void poll_ShouldInvalidateProductsChangedByOtherInstances() {
+        // 准备
+        start(10L);
+        changeLog.record(ProductChangedEvent.deleted(3L));
+        ArgumentCaptor<ProductChange> recorded = ArgumentCaptor.forClass(ProductChange.class);
+        verify(changeRepository).save(recorded.capture());
+        ProductChange own = change(11L, 3L, recorded.getValue().getOrigin());
+        when(changeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(own, change(12L, 1L, "other"), change(13L, 2L, "other")));
+
+        // 执行
+        changeLog.poll();
+
+        // 断言：本实例写入的变更已在提交时处理，不再失效
+        verify(productCache).evict(1L);
+        verify(productCache).evict(2L);
+        verify(productCache, never()).evict(3L);
+        verify(jsonCache).evict(1L);
+        verify(readModel).reload(Set.of(1L, 2L));
+        verify(relatedIndex).reload(Set.of(1L, 2L));
+        verify(inventoryColumns).reload(Set.of(1L, 2L));
+        assertEquals(13L, changeLog.cursor());
+    }
+
+    @Test
+    void poll_WhenVersionMissing_ShouldHoldCursorUntilGapTimeout() {
+        // 准备：version 11 的事务尚未提交
+        start(10L);
+        when(changeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(12L, 2L, "other")));
+        when(changeRepository.findAllById(List.of(11L))).thenReturn(List.of(change(11L, 1L, "other")));
+
+        // 执行
+        changeLog.poll();
+        long heldCursor = changeLog.cursor();
+        changeLog.poll();
+
+        // 断言：12 只处理一次，11 出现后游标越过两者
+        assertEquals(10L, heldCursor);
+        assertEquals(12L, changeLog.cursor());
+        verify(productCache).evict(1L);
+        verify(productCache, times(1)).evict(2L);
+    }
+
+    @Test
+    void poll_WhenGapIsOpen_ShouldKeepApplyingNewerChanges() {
+        // 准备：空洞之后的变更多于一批
+        properties.setBatchSize(2);
+        start(10L);
+        when(changeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(12L, 2L, "other"), change(13L, 3L, "other")));
+        when(changeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(13L), any(Limit.class)))
+                .thenReturn(List.of(change(14L, 4L, "other")));
+
+        // 执行
+        changeLog.poll();
+        changeLog.poll();
+
+        // 断言
+        verify(productCache).evict(4L);
+        assertEquals(10L, changeLog.cursor());
+    }
+
+    @Test
+    void poll_WhenGapOutlivesTimeout_ShouldSkipItAndInvalidateEverything() {
+        // 准备：version 11 的事务超过 gap-timeout 才提交
+        properties.setGapTimeout(Duration.ZERO);
+        start(10L);
+        when(changeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(change(12L, 2L, "other")));
+        when(changeRepository.findAllById(List.of(11L)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(change(11L, 1L, "other")));
+
+        // 执行
+        changeLog.poll();
+        changeLog.poll();
+
+        // 断言
+        assertEquals(12L, changeLog.cursor());
+        verify(productCache, times(1)).evict(2L);
+        verify(productCache).evictAll();
+        verify(jsonCache).evictAll();
+        verify(readModel).refresh();
+
+        // 执行：越过之后才提交的变更仍会处理
+        changeLog.poll();
+
+        // 断言
+        verify(productCache).evict(1L);
+    }
+
+    private void start(long latestVersion) {
+        when(changeRepository.findLatestVersion()).thenReturn(Optional.of(latestVersion));
+        changeLog.run(new DefaultApplicationArguments());
+    }
+
+    private ProductChange change(long version, long productId, String origin) {
+        ProductChange change = new ProductChange(productId, "UPDATED", origin, LocalDateTime.now());
+        change.setVersion(version);
+        return change;
+    }
+}
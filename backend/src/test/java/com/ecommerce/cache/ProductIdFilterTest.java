@@ -0,0 +1,90 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductIdFilterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private IdFilterProperties properties;
+    private ProductIdFilter idFilter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdFilterProperties();
+        idFilter = new ProductIdFilter(properties, productRepository, transactionManager, taskScheduler,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void isDefinitelyAbsent_ShouldNeverRejectExistingIds() {
+        // 准备
+        List<Long> ids = LongStream.rangeClosed(1, 10_000).filter(id -> id % 3 != 0).boxed().toList();
+        when(productRepository.count()).thenReturn((long) ids.size());
+        when(productRepository.findAllIds()).thenReturn(ids);
+
+        // 执行
+        idFilter.rebuild();
+
+        // 断言
+        for (Long id : ids) {
+            assertFalse(idFilter.isDefinitelyAbsent(id));
+        }
+        long rejected = LongStream.rangeClosed(1, 10_000).filter(id -> id % 3 == 0)
+                .filter(idFilter::isDefinitelyAbsent).count();
+        assertTrue(rejected > 3333 * 0.97, "误判过多: " + (3333 - rejected));
+    }
+
+    @Test
+    void isDefinitelyAbsent_WhenIdAboveKnownMaximum_ShouldLoadNewerIdsFromDatabase() {
+        // 准备：其他实例批量创建的产品尚未经变更日志加入过滤器
+        when(productRepository.count()).thenReturn(2L);
+        when(productRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        when(productRepository.findIdsGreaterThan(2L)).thenReturn(List.of(3L, 5000L));
+        idFilter.rebuild();
+
+        // 执行、断言
+        assertFalse(idFilter.isDefinitelyAbsent(5000L));
+        assertFalse(idFilter.isDefinitelyAbsent(3L));
+        assertTrue(idFilter.isDefinitelyAbsent(1_000_000L));
+        verify(productRepository).findIdsGreaterThan(5000L);
+    }
+
+    @Test
+    void add_ShouldMakeCreatedIdPass() {
+        // 准备
+        when(productRepository.count()).thenReturn(1L);
+        when(productRepository.findAllIds()).thenReturn(List.of(1L));
+        idFilter.rebuild();
+        assertTrue(idFilter.isDefinitelyAbsent(500L));
+
+        // 执行
+        idFilter.add(500L);
+
+        // 断言
+        assertFalse(idFilter.isDefinitelyAbsent(500L));
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.service.ProductChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductJsonCacheTest {
+
+    private ProductJsonCache jsonCache;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        jsonCache = new ProductJsonCache(new CacheProperties(),
+                new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry());
+        product = new Product("Test Product", "Test Description", new BigDecimal("99.99"), 10, "Electronics", null);
+        product.setId(1L);
+        product.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 10, 0));
+    }
+
+    @Test
+    void serialize_WhenVersionUnchanged_ShouldReuseBytes() {
+        // 执行
+        byte[] first = jsonCache.serialize(product).json();
+        byte[] second = jsonCache.serialize(product).json();
+
+        // 断言
+        assertSame(first, second);
+        assertTrue(new String(first, StandardCharsets.UTF_8).contains("\"name\":\"Test Product\""));
+    }
+
+    @Test
+    void serialize_WhenVersionChanged_ShouldSerializeAgain() {
+        // 准备
+        byte[] first = jsonCache.serialize(product).json();
+        product.setName("Renamed");
+        product.setUpdatedAt(product.getUpdatedAt().plusSeconds(1));
+
+        // 执行
+        byte[] second = jsonCache.serialize(product).json();
+
+        // 断言
+        assertNotSame(first, second);
+        assertTrue(new String(second, StandardCharsets.UTF_8).contains("\"name\":\"Renamed\""));
+    }
+
+    @Test
+    void onProductChanged_ShouldDropListAndProductEntries() {
+        // 准备
+        List<Product> products = List.of(product);
+        byte[] list = jsonCache.serialize(products).json();
+        byte[] single = jsonCache.serialize(product).json();
+
+        // 执行
+        jsonCache.onProductChanged(ProductChangedEvent.deleted(1L));
+
+        // 断言
+        assertNotSame(list, jsonCache.serialize(products).json());
+        assertNotSame(single, jsonCache.serialize(product).json());
+    }
+
+    @Test
+    void serialize_WhenSourceVersionUnchanged_ShouldNotLoadProducts() {
+        // 准备：堆外读模型每次解码出新的列表
+        OffHeapProductStore store = new OffHeapProductStore(1024, 1 << 20);
+        store.put(product);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<Product>> loader = () -> {
+            loads.incrementAndGet();
+            return store.getAll();
+        };
+
+        // 执行
+        byte[] first = jsonCache.serialize(store, store.version(), loader).json();
+        byte[] second = jsonCache.serialize(store, store.version(), loader).json();
+        store.remove(1L);
+        byte[] afterRemove = jsonCache.serialize(store, store.version(), loader).json();
+
+        // 断言
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals("[]", new String(afterRemove, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void gzip_ShouldDecompressToJson() throws IOException {
+        // 准备
+        ProductJsonCache.SerializedJson json = jsonCache.serialize(List.of(product, product, product, product,
+                product, product, product, product, product, product, product, product, product, product));
+
+        // 执行
+        byte[] decompressed;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(json.gzip()))) {
+            decompressed = in.readAllBytes();
+        }
+
+        // 断言
+        assertTrue(json.isCompressible());
+        assertArrayEquals(json.json(), decompressed);
+        assertTrue(json.gzip().length < json.json().length);
+        assertFalse(jsonCache.serialize(product).isCompressible());
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RelatedProductsIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RelatedProductsIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RelatedProductsIndex(new RelatedProductsProperties(), productRepository, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry());
+        index.run(null);
+    }
+
+    @Test
+    void related_ShouldReturnNearestPricedInStockProductsInSameCategory() {
+        // 准备
+        index.put(product(1L, "电子产品", "100.00", 5));
+        index.put(product(2L, "电子产品", "90.00", 5));
+        index.put(product(3L, "电子产品", "115.00", 5));
+        index.put(product(4L, "电子产品", "60.00", 5));
+        index.put(product(5L, "电子产品", "101.00", 0));
+        index.put(product(6L, "家居", "100.50", 5));
+        index.put(product(7L, "电子产品", "110.00", 5));
+
+        // 执行
+        Optional<List<Long>> related = index.related(1L, 3);
+
+        // 断言：缺货的 5 和其他分类的 6 不返回，价格差相同时较便宜的在前
+        assertEquals(Optional.of(List.of(2L, 7L, 3L)), related);
+        assertEquals(Optional.of(List.of(1L, 7L)), index.related(5L, 2));
+    }
+
+    @Test
+    void onProductChanged_ShouldMoveUpdatedProductsAndDropDeletedOnes() {
+        // 准备
+        index.put(product(1L, "电子产品", "100.00", 5));
+        index.put(product(2L, "电子产品", "90.00", 5));
+        index.put(product(3L, "电子产品", "200.00", 5));
+
+        // 执行
+        index.onProductChanged(ProductChangedEvent.updated(product(3L, "电子产品", "95.00", 5)));
+        index.onProductChanged(ProductChangedEvent.deleted(2L));
+
+        // 断言
+        assertEquals(Optional.of(List.of(3L)), index.related(1L, 5));
+        assertEquals(Optional.empty(), index.related(2L, 5));
+
+        // 执行：改到其他分类、缺货
+        index.onProductChanged(ProductChangedEvent.updated(product(3L, "家居", "95.00", 5)));
+        index.onProductChanged(ProductChangedEvent.updated(product(1L, "家居", "100.00", 0)));
+
+        // 断言
+        assertEquals(Optional.of(List.of(3L)), index.related(1L, 5));
+        assertEquals(Optional.of(List.of()), index.related(3L, 5));
+    }
+
+    @Test
+    void reload_ShouldRemoveProductsMissingFromDatabase() {
+        // 准备
+        index.put(product(1L, "电子产品", "100.00", 5));
+        index.put(product(2L, "电子产品", "90.00", 5));
+        when(productRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(product(1L, "电子产品", "80.00", 5)));
+
+        // 执行
+        index.reload(List.of(1L, 2L));
+
+        // 断言
+        assertEquals(Optional.empty(), index.related(2L, 5));
+        assertEquals(Optional.of(List.of()), index.related(1L, 5));
+    }
+
+    private static Product product(Long id, String category, String price, int stock) {
+        Product product = new Product("产品" + id, null, new BigDecimal(price), stock, category, null);
+        product.setId(id);
+        return product;
+    }
+}
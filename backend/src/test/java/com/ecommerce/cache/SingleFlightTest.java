@@ -0,0 +1,113 @@
+package com.ecommerce.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(meterRegistry);
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void execute_WhenSameKeyIsLoading_ShouldShareOneLoad() throws Exception {
+        // 准备：加载阻塞，直到所有调用方都已发起
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+
+        // 执行
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> singleFlight.execute("product", 1L, () -> {
+                loaderCalls.incrementAndGet();
+                await(release);
+                return "loaded";
+            })));
+        }
+        waitUntil(() -> meterRegistry.counter("singleflight.coalesced", "kind", "product").count() == 7);
+        release.countDown();
+
+        // 断言
+        for (Future<String> result : results) {
+            assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1.0, meterRegistry.counter("singleflight.loads", "kind", "product").count());
+    }
+
+    @Test
+    void execute_WhenLoadFails_ShouldPropagateToWaitingCallers() throws Exception {
+        // 准备
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> singleFlight.execute("product", 1L, () -> {
+            await(release);
+            throw new IllegalStateException("数据库不可用");
+        }));
+        waitUntil(() -> meterRegistry.counter("singleflight.loads", "kind", "product").count() == 1);
+        Future<String> follower = callers.submit(() -> singleFlight.execute("product", 1L, () -> "unexpected"));
+        waitUntil(() -> meterRegistry.counter("singleflight.coalesced", "kind", "product").count() == 1);
+
+        // 执行
+        release.countDown();
+
+        // 断言
+        Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+        assertInstanceOf(IllegalStateException.class, followerError.getCause());
+    }
+
+    @Test
+    void execute_WhenPreviousLoadFinished_ShouldLoadAgain() {
+        // 执行
+        singleFlight.execute("product", 1L, () -> "first");
+        String second = singleFlight.execute("product", 1L, () -> "second");
+        String otherKind = singleFlight.execute("product-list", 1L, () -> "list");
+
+        // 断言
+        assertEquals("second", second);
+        assertEquals("list", otherKind);
+        assertEquals(0.0, meterRegistry.counter("singleflight.coalesced", "kind", "product").count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待条件超时");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ecommerce.cache;
+
+import com.ecommerce.cache.TrendingProducts.HotProduct;
+import com.ecommerce.service.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingProductsTest {
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private TrendingProducts trending;
+
+    @BeforeEach
+    void setUp() {
+        TrendingProperties properties = new TrendingProperties();
+        properties.setTopK(10);
+        trending = new TrendingProducts(properties, taskScheduler, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void top_ShouldFindHeavyHittersAmongLongTail() {
+        // 准备：10 个热门产品各 1000 次，10 万个其他产品各 1 到 3 次，随机交错
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 200_000; i++) {
+            if (random.nextInt(20) == 0) {
+                trending.recordView(random.nextLong(1, 11));
+            } else {
+                trending.recordView(random.nextLong(1000, 100_000));
+            }
+        }
+
+        // 执行
+        List<HotProduct> top = trending.top(10);
+
+        // 断言
+        assertEquals(10, top.size());
+        for (HotProduct product : top) {
+            assertTrue(product.productId() <= 10, "不是热门产品: " + product);
+            assertTrue(trending.isHot(product.productId()));
+        }
+        assertTrue(top.get(0).views() >= top.get(9).views());
+    }
+
+    @Test
+    void recordView_ShouldCountConcurrentViews() throws InterruptedException {
+        // 准备
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+
+        // 执行
+        for (int w = 0; w < 4; w++) {
+            workers.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    trending.recordView(42L);
+                }
+            });
+        }
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(10, TimeUnit.SECONDS));
+
+        // 断言：count-min sketch 只会高估，单个产品时没有冲突
+        assertEquals(List.of(new HotProduct(42L, 40_000)), trending.top(10));
+    }
+
+    @Test
+    void decay_ShouldLetRecentViewsOvertakeOlderOnes() {
+        // 准备
+        for (int i = 0; i < 100; i++) {
+            trending.recordView(1L);
+        }
+        trending.decay();
+        trending.decay();
+
+        // 执行
+        for (int i = 0; i < 40; i++) {
+            trending.recordView(2L);
+        }
+
+        // 断言
+        List<HotProduct> top = trending.top(2);
+        assertEquals(2L, top.get(0).productId());
+        assertEquals(new HotProduct(1L, 25), top.get(1));
+    }
+
+    @Test
+    void onProductChanged_ShouldDropDeletedProducts() {
+        // 准备
+        trending.recordView(1L);
+        trending.recordView(2L);
+
+        // 执行
+        trending.onProductChanged(new ProductChangedEvent(ProductChangedEvent.ChangeType.DELETED, 1L, null));
+
+        // 断言
+        assertEquals(List.of(2L), trending.top(10).stream().map(HotProduct::productId).toList());
+        assertFalse(trending.isHot(1L));
+    }
+}
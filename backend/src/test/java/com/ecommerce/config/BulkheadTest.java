@@ -0,0 +1,129 @@
+package com.ecommerce.config;
+
+import com.ecommerce.lifecycle.Deadline;
+import com.ecommerce.lifecycle.DeadlineExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Bulkhead readBulkhead;
+    private Bulkhead writeBulkhead;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readBulkhead = new Bulkhead("read", executor(2, 2), meterRegistry);
+        writeBulkhead = new Bulkhead("write", executor(1, 1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        readBulkhead.getExecutor().shutdown();
+        writeBulkhead.getExecutor().shutdown();
+    }
+
+    @Test
+    void submit_WhenCompartmentIsFull_ShouldRejectAndCount() {
+        // 准备：1个线程 + 1个队列位置被占满
+        writeBulkhead.submit(this::blockUntilReleased);
+        writeBulkhead.submit(this::blockUntilReleased);
+
+        // 执行 & 断言
+        assertThrows(BulkheadFullException.class, () -> writeBulkhead.submit(() -> "overflow"));
+        assertEquals(1.0, meterRegistry.get("bulkhead.rejected").tag("compartment", "write").counter().count());
+    }
+
+    @Test
+    void submit_WhenWriteCompartmentIsSaturated_ReadsShouldStillComplete() throws Exception {
+        // 准备：写隔离舱被占满
+        writeBulkhead.submit(this::blockUntilReleased);
+        writeBulkhead.submit(this::blockUntilReleased);
+
+        // 执行
+        String result = readBulkhead.submit(() -> "catalog").get(5, TimeUnit.SECONDS);
+
+        // 断言
+        assertEquals("catalog", result);
+        assertEquals(0.0, meterRegistry.get("bulkhead.rejected").tag("compartment", "read").counter().count());
+    }
+
+    @Test
+    void submit_WhenDeadlinePassesInQueue_ShouldNotRunTask() throws Exception {
+        // 准备：唯一的线程被占用，任务只能排队
+        writeBulkhead.submit(this::blockUntilReleased);
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> queued;
+        try (Deadline.Scope ignored = Deadline.after(Duration.ofMillis(20)).attach()) {
+            queued = writeBulkhead.submit(() -> {
+                ran.set(true);
+                return "late";
+            });
+        }
+
+        // 执行
+        Thread.sleep(50);
+        release.countDown();
+
+        // 断言
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DeadlineExceededException.class, thrown.getCause());
+        assertFalse(ran.get());
+        assertEquals(1.0, meterRegistry.get("bulkhead.deadline.exceeded").tag("compartment", "write").counter().count());
+    }
+
+    @Test
+    void submit_ShouldCarryDeadlineToWorkerThread() throws Exception {
+        // 准备
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+        Bulkhead background = new Bulkhead("import", executor(1, 1), meterRegistry, false);
+
+        // 执行
+        Deadline seen;
+        Deadline seenInBackground;
+        try (Deadline.Scope ignored = deadline.attach()) {
+            seen = readBulkhead.submit(Deadline::current).get(5, TimeUnit.SECONDS);
+            seenInBackground = background.submit(Deadline::current).get(5, TimeUnit.SECONDS);
+        } finally {
+            background.getExecutor().shutdown();
+        }
+
+        // 断言
+        assertSame(deadline, seen);
+        assertNull(seenInBackground);
+        assertNull(Deadline.current());
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private ThreadPoolTaskExecutor executor(int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两个本地 H2 数据库作为只读副本，在获取连接时注入延迟模拟变慢的副本
+ */
+class HedgedReadsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private HedgingProperties properties;
+    private SlowDataSource replicaA;
+    private SlowDataSource replicaB;
+    private HedgedReads hedgedReads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(20));
+        replicaA = replica("a");
+        replicaB = replica("b");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        hedgedReads.destroy();
+    }
+
+    @Test
+    void query_WhenPrimaryIsSlow_ShouldReturnHedgeResult() {
+        // 准备：第一次读取的首选副本是 a
+        replicaA.latencyMillis = 2000;
+        hedgedReads = new HedgedReads(properties, List.of(replicaA, replicaB), meterRegistry);
+
+        // 执行
+        long start = System.nanoTime();
+        String result = hedgedReads.query("replica", this::replicaName);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        // 断言
+        assertEquals("b", result);
+        assertTrue(elapsedMillis < 1000, "耗时 " + elapsedMillis + "ms");
+        assertEquals(1.0, hedged("hedge"));
+        assertEquals(0.0, hedged("primary"));
+    }
+
+    @Test
+    void query_WhenPrimaryIsFast_ShouldNotHedge() {
+        // 准备
+        properties.setInitialDelay(Duration.ofSeconds(1));
+        hedgedReads = new HedgedReads(properties, List.of(replicaA, replicaB), meterRegistry);
+
+        // 执行
+        String first = hedgedReads.query("replica", this::replicaName);
+        String second = hedgedReads.query("replica", this::replicaName);
+
+        // 断言：首选副本轮流使用
+        assertEquals(List.of("a", "b"), List.of(first, second));
+        assertEquals(0.0, hedged("hedge") + hedged("primary"));
+    }
+
+    @Test
+    void query_WhenBudgetIsExhausted_ShouldWaitForPrimary() {
+        // 准备：两个副本都慢，预算只够一次对冲且不再积累
+        replicaA.latencyMillis = 200;
+        replicaB.latencyMillis = 200;
+        properties.setBurst(1);
+        properties.setMaxHedgeRatio(0);
+        hedgedReads = new HedgedReads(properties, List.of(replicaA, replicaB), meterRegistry);
+
+        // 执行
+        hedgedReads.query("replica", this::replicaName);
+        String throttled = hedgedReads.query("replica", this::replicaName);
+
+        // 断言
+        assertEquals("b", throttled);
+        assertEquals(1.0, hedged("hedge") + hedged("primary"));
+        assertEquals(1.0, meterRegistry.get("replica.reads.hedge.throttled").counter().count());
+        assertEquals(2.0, meterRegistry.get("replica.reads").counter().count());
+    }
+
+    private String replicaName(JdbcOperations jdbc) {
+        return jdbc.queryForObject("SELECT name FROM replica", String.class);
+    }
+
+    private double hedged(String winner) {
+        return meterRegistry.get("replica.reads.hedged").tag("winner", winner).counter().count();
+    }
+
+    private static SlowDataSource replica(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE replica (name VARCHAR(10))");
+        jdbc.update("INSERT INTO replica VALUES (?)", name);
+        return new SlowDataSource(dataSource);
+    }
+
+    /**
+     * 获取连接前等待 latencyMillis
+     */
+    private static final class SlowDataSource extends DelegatingDataSource {
+
+        volatile long latencyMillis;
+
+        SlowDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.lifecycle;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeadlineFilterTest {
+
+    private final DeadlineProperties properties = new DeadlineProperties();
+    private final DeadlineFilter filter = new DeadlineFilter(properties);
+
+    @Test
+    void timeout_WhenHeaderIsNotPositive_ShouldUseDefault() {
+        for (String value : new String[]{"0", "-5", "abc"}) {
+            assertEquals(properties.getDefaultTimeout(), filter.timeout(request(value)), value);
+        }
+    }
+
+    @Test
+    void timeout_WhenHeaderExceedsMax_ShouldCapIt() {
+        assertEquals(Duration.ofMillis(250), filter.timeout(request("250")));
+        assertEquals(properties.getMaxTimeout(), filter.timeout(request(String.valueOf(Long.MAX_VALUE))));
+    }
+
+    private MockHttpServletRequest request(String timeout) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(properties.getHeader(), timeout);
+        return request;
+    }
+}
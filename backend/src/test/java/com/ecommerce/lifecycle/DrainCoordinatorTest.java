@@ -0,0 +1,87 @@
+package com.ecommerce.lifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrainCoordinatorTest {
+
+    private InFlightTracker tracker;
+    private DrainProperties properties;
+    private DrainCoordinator coordinator;
+    private InFlightRequestFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.refresh();
+        tracker = new InFlightTracker(meterRegistry);
+        properties = new DrainProperties();
+        coordinator = new DrainCoordinator(tracker, properties, context, meterRegistry);
+        filter = new InFlightRequestFilter(tracker, properties, meterRegistry);
+    }
+
+    @Test
+    void stop_ShouldWaitForInFlightRequestsAndRejectNewOnes() throws Exception {
+        // 准备：一个进行中的请求
+        properties.setTimeout(Duration.ofSeconds(10));
+        tracker.requestStarted();
+
+        // 执行
+        CompletableFuture<Void> stopping = CompletableFuture.runAsync(coordinator::stop);
+        while (coordinator.getState() != DrainCoordinator.State.DRAINING) {
+            Thread.sleep(10);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products"), response, new MockFilterChain());
+
+        // 断言：新请求被拒绝，排空仍在等待
+        assertEquals(503, response.getStatus());
+        assertEquals("close", response.getHeader("Connection"));
+        assertFalse(stopping.isDone());
+
+        // 进行中的请求完成后排空结束
+        tracker.requestFinished();
+        stopping.get(5, TimeUnit.SECONDS);
+        assertEquals(DrainCoordinator.State.DRAINED, coordinator.getState());
+    }
+
+    @Test
+    void stop_WhenDeadlinePasses_ShouldGiveUpWaiting() {
+        // 准备：一个永远不会结束的事务
+        properties.setTimeout(Duration.ofMillis(200));
+        tracker.afterBegin(null, null);
+
+        // 执行
+        coordinator.stop();
+
+        // 断言
+        assertEquals(DrainCoordinator.State.TIMED_OUT, coordinator.getState());
+        assertEquals(1, tracker.getOpenTransactions());
+    }
+
+    @Test
+    void filter_ShouldNotTrackOrRejectActuatorRequests() throws Exception {
+        // 准备
+        tracker.startDraining();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // 执行
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response, new MockFilterChain());
+
+        // 断言
+        assertEquals(200, response.getStatus());
+        assertEquals(0, tracker.getInFlightRequests());
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 以 EXPLAIN 检查一条 SQL 的执行计划
+ * 解析的是测试库 H2 的计划文本：表扫描标记为 tableScan，按索引顺序读取标记为 index sorted
+ */
+public class IndexUsageChecker {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IndexUsageChecker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 返回 sql 的执行计划
+     * @param params 按出现顺序绑定到 ? 的参数
+     */
+    public String explain(String sql, List<?> params) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, params.toArray());
+    }
+
+    /**
+     * 检查执行计划中的全表扫描和未使用索引的排序
+     * @param fullScanAllowed 读取整张表的查询（如 findAll）允许全表扫描
+     * @return 发现的问题，没有问题时为空
+     */
+    public List<String> check(String sql, List<?> params, boolean fullScanAllowed) {
+        String plan = explain(sql, params);
+        List<String> problems = new ArrayList<>();
+        if (!fullScanAllowed && plan.contains(".tableScan")) {
+            problems.add("全表扫描");
+        }
+        if (sql.toLowerCase(Locale.ROOT).contains(" order by ") && !plan.contains("index sorted")) {
+            problems.add("排序未使用索引（filesort）");
+        }
+        return problems.stream()
+                .map(problem -> problem + ": " + sql + "\n计划: " + plan)
+                .toList();
+    }
+}
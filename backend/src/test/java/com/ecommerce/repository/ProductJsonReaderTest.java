@@ -0,0 +1,82 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductJsonReaderTest {
+
+    @Autowired
+    private ProductJsonReader productJsonReader;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private List<Product> products;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        products = productRepository.saveAll(List.of(
+                new Product("笔记本电脑", "带 \"引号\" 和\n换行的描述", new BigDecimal("8999.99"), 25, "电子产品", null),
+                new Product("Mouse", null, new BigDecimal("0.50"), 0, null, "https://example.com/m.jpg")));
+    }
+
+    @Test
+    void findAllAsJson_ShouldMatchEntitySerialization() throws IOException {
+        // 执行
+        byte[] json = productJsonReader.findAllAsJson();
+
+        // 断言
+        byte[] expected = objectMapper.writeValueAsBytes(productRepository.findAll(Sort.by("id")));
+        assertEquals(objectMapper.readTree(expected), objectMapper.readTree(json));
+    }
+
+    @Test
+    void writeAllAsJson_ShouldStreamSameJsonAndLeaveStreamOpen() throws IOException {
+        // 准备
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("输出流应由调用方关闭");
+            }
+        };
+
+        // 执行
+        productJsonReader.writeAllAsJson(out);
+
+        // 断言
+        assertEquals(new String(productJsonReader.findAllAsJson()), out.toString());
+    }
+
+    @Test
+    void findByIdAsJson_ShouldMatchEntitySerialization() throws IOException {
+        // 准备
+        Long id = products.get(0).getId();
+
+        // 执行
+        byte[] json = productJsonReader.findByIdAsJson(id).orElseThrow();
+
+        // 断言
+        byte[] expected = objectMapper.writeValueAsBytes(productRepository.findById(id).orElseThrow());
+        assertEquals(new String(expected), new String(json));
+        assertTrue(productJsonReader.findByIdAsJson(id + 1000).isEmpty());
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 读端点两种实现的吞吐量对比：ProductRepository + Jackson 与 JDBC 直接生成 JSON。
+ * 只在 mvn -Pbenchmark test 时运行；数据库为内存 H2，结果只用于比较 CPU 开销，不代表 MySQL 上的延迟
+ */
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class ReadLaneBenchmarkTest {
+
+    private static final int PRODUCTS = 2000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASURED_ROUNDS = 200;
+
+    @Autowired
+    private ProductJsonReader productJsonReader;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        productRepository.deleteAll();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(new Product("Product " + i, "Description of product " + i,
+                    new BigDecimal("19.99"), i, "Category " + (i % 20), "https://example.com/" + i + ".jpg"));
+        }
+        ids = productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    @Test
+    void listLanes() {
+        Supplier<byte[]> jpa = () -> readOnlyTransaction.execute(status ->
+                toJson(productRepository.findAll(Sort.by("id"))));
+        Supplier<byte[]> jdbc = productJsonReader::findAllAsJson;
+
+        assertEquals(new String(jpa.get()), new String(jdbc.get()));
+        report("GET /api/products", measure(jpa), measure(jdbc));
+    }
+
+    @Test
+    void byIdLanes() {
+        int[] next = {0};
+        Supplier<byte[]> jpa = () -> readOnlyTransaction.execute(status ->
+                toJson(productRepository.findById(ids.get(next[0]++ % ids.size())).orElseThrow()));
+        Supplier<byte[]> jdbc = () -> productJsonReader.findByIdAsJson(ids.get(next[0]++ % ids.size())).orElseThrow();
+
+        report("GET /api/products/{id}", measure(times(jpa, 100)), measure(times(jdbc, 100)));
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Supplier<byte[]> times(Supplier<byte[]> operation, int count) {
+        return () -> {
+            byte[] last = null;
+            for (int i = 0; i < count; i++) {
+                last = operation.get();
+            }
+            return last;
+        };
+    }
+
+    /**
+     * 单线程执行，返回每轮的平均耗时（纳秒）
+     */
+    private static double measure(Supplier<byte[]> operation) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            operation.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            operation.get();
+        }
+        return (double) (System.nanoTime() - start) / MEASURED_ROUNDS;
+    }
+
+    private static void report(String endpoint, double jpaNanos, double jdbcNanos) {
+        System.out.printf("%s: jpa %.3f ms/轮, jdbc %.3f ms/轮, jdbc 吞吐为 jpa 的 %.2f 倍%n",
+                endpoint, jpaNanos / 1e6, jdbcNanos / 1e6, jpaNanos / jdbcNanos);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.QueryCounter;
+import com.ecommerce.model.Product;
+import com.ecommerce.model.ProductChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 对仓库能发出的每条查询执行 EXPLAIN，检查全表扫描和未使用索引的排序
+ * 仓库新增的查询方法必须在这里登记，否则测试失败
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ecommerce.QueryCounter")
+@ActiveProfiles("test")
+class RepositoryIndexUsageTest {
+
+    private static final LocalDateTime SINCE = LocalDateTime.now().minusMinutes(5);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 一条被检查的查询
+     * @param method 仓库方法名
+     * @param call 以代表性参数调用该方法
+     * @param params 发出的 SQL 中按顺序绑定的参数
+     * @param fullScanAllowed 是否本来就要读取整张表
+     */
+    private record QueryCase(String method, Runnable call, List<?> params, boolean fullScanAllowed) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        changeRepository.deleteAll();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            products.add(new Product("Product " + i, null, new BigDecimal("10.00"), i, "分类 " + (i % 50), null));
+        }
+        productRepository.saveAll(products);
+        List<ProductChange> changes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            changes.add(new ProductChange((long) i, "UPDATED", "test", LocalDateTime.now().minusHours(i)));
+        }
+        changeRepository.saveAll(changes);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void productRepositoryQueries_ShouldUseIndexes() {
+        Long id = productRepository.findAllIds().get(0);
+        List<QueryCase> cases = List.of(
+                new QueryCase("findAll", productRepository::findAll, List.of(), true),
+                new QueryCase("findById", () -> productRepository.findById(id), List.of(id), false),
+                new QueryCase("findAllById", () -> productRepository.findAllById(List.of(id, id + 1)), List.of(id, id + 1), false),
+                new QueryCase("findByUpdatedAtGreaterThanEqual",
+                        () -> productRepository.findByUpdatedAtGreaterThanEqual(SINCE), List.of(SINCE), false),
+                new QueryCase("findAllIds", productRepository::findAllIds, List.of(), true),
+                new QueryCase("findIdsGreaterThan", () -> productRepository.findIdsGreaterThan(id), List.of(id), false),
+                new QueryCase("findLatestUpdatedAt", productRepository::findLatestUpdatedAt, List.of(), false),
+                new QueryCase("deleteProductById", () -> productRepository.deleteProductById(id), List.of(id), false));
+
+        assertAllCovered(ProductRepository.class, cases);
+        assertUsesIndexes(cases);
+    }
+
+    @Test
+    void productChangeRepositoryQueries_ShouldUseIndexes() {
+        List<QueryCase> cases = List.of(
+                new QueryCase("findByVersionGreaterThanOrderByVersionAsc",
+                        () -> changeRepository.findByVersionGreaterThanOrderByVersionAsc(500L, Limit.of(100)),
+                        List.of(500L, 100), false),
+                new QueryCase("findLatestVersion", changeRepository::findLatestVersion, List.of(), false),
+                new QueryCase("deleteChangedBefore", () -> changeRepository.deleteChangedBefore(SINCE.minusDays(30)),
+                        List.of(SINCE.minusDays(30)), false));
+
+        assertAllCovered(ProductChangeRepository.class, cases);
+        assertUsesIndexes(cases);
+    }
+
+    /**
+     * 仓库接口中声明的每个查询方法都必须有对应的检查
+     */
+    private static void assertAllCovered(Class<?> repository, List<QueryCase> cases) {
+        Set<String> covered = cases.stream().map(QueryCase::method).collect(Collectors.toSet());
+        List<String> missing = Arrays.stream(repository.getDeclaredMethods())
+                .map(Method::getName)
+                .filter(name -> !covered.contains(name))
+                .toList();
+        assertTrue(missing.isEmpty(), repository.getSimpleName() + " 的查询未登记索引检查: " + missing);
+    }
+
+    private void assertUsesIndexes(List<QueryCase> cases) {
+        IndexUsageChecker checker = new IndexUsageChecker(jdbcTemplate);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<String> problems = new ArrayList<>();
+        for (QueryCase queryCase : cases) {
+            List<String> statements = transaction.execute(status -> {
+                // 只为取得 SQL，修改类的查询随事务回滚
+                status.setRollbackOnly();
+                QueryCounter.start();
+                List<String> issued;
+                try {
+                    queryCase.call().run();
+                } finally {
+                    issued = QueryCounter.stop();
+                }
+                return issued;
+            });
+            assertEquals(1, statements.size(), queryCase.method() + " 发出的语句: " + statements);
+            for (String problem : checker.check(statements.get(0), queryCase.params(), queryCase.fullScanAllowed())) {
+                problems.add(queryCase.method() + " - " + problem);
+            }
+        }
+        assertTrue(problems.isEmpty(), String.join("\n", problems));
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.scale;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 可复现的大规模产品目录生成器
+ * 第 n 行的内容只取决于种子和 n，目录可以分多次增长到目标规模，结果与一次生成相同。
+ * 以 JDBC 批量插入直接写入 products 表，不经过 JPA，也不写变更日志
+ */
+public class CatalogGenerator {
+
+    private static final String INSERT_SQL = "INSERT INTO products "
+            + "(name, description, price, stock_quantity, category, image_url, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String LATIN = "abcdefghijklmnopqrstuvwxyz      ";
+
+    /**
+     * 目录的形状
+     * @param seed 随机种子
+     * @param categories 分类数
+     * @param categorySkew 分类分布的 Zipf 指数，0 为均匀分布，越大越集中在少数分类
+     * @param minDescriptionLength 描述的最小字符数
+     * @param maxDescriptionLength 描述的最大字符数
+     * @param cjkRatio 名称和描述中中日韩字符的比例
+     * @param batchSize 每次批量插入的行数
+     */
+    public record Spec(long seed, int categories, double categorySkew,
+                       int minDescriptionLength, int maxDescriptionLength, double cjkRatio, int batchSize) {
+
+        public static Spec defaults() {
+            return new Spec(42L, 200, 1.1, 20, 200, 0.7, 5000);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Spec spec;
+    private final double[] categoryCdf;
+    private final LocalDateTime epoch = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    public CatalogGenerator(JdbcTemplate jdbcTemplate, Spec spec) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.spec = spec;
+        this.categoryCdf = new double[spec.categories()];
+        double total = 0;
+        for (int k = 0; k < spec.categories(); k++) {
+            total += 1.0 / Math.pow(k + 1, spec.categorySkew());
+            categoryCdf[k] = total;
+        }
+        for (int k = 0; k < categoryCdf.length; k++) {
+            categoryCdf[k] /= total;
+        }
+    }
+
+    /**
+     * 插入第 from 到第 to - 1 行
+     * @return 插入的行数
+     */
+    public long generate(long from, long to) {
+        for (long start = from; start < to; start += spec.batchSize()) {
+            long batchStart = start;
+            int size = (int) Math.min(spec.batchSize(), to - start);
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    setRow(ps, batchStart + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+        return to - from;
+    }
+
+    /**
+     * 第 n 行所属的分类
+     */
+    public String category(long row) {
+        return categoryName(pickCategory(random(row)));
+    }
+
+    public static String categoryName(int index) {
+        return "分类-" + index;
+    }
+
+    private void setRow(PreparedStatement ps, long row) throws SQLException {
+        SplittableRandom random = random(row);
+        int category = pickCategory(random);
+        int descriptionLength = random.nextInt(spec.minDescriptionLength(), spec.maxDescriptionLength() + 1);
+        LocalDateTime createdAt = epoch.plusSeconds(random.nextLong(365L * 24 * 3600));
+        ps.setString(1, text(random, 8, 40) + " " + row);
+        ps.setString(2, text(random, descriptionLength, descriptionLength));
+        ps.setBigDecimal(3, BigDecimal.valueOf(random.nextLong(1, 1_000_000), 2));
+        ps.setInt(4, random.nextInt(0, 10_001));
+        ps.setString(5, categoryName(category));
+        ps.setString(6, "https://img.example.com/p/" + row + ".jpg");
+        ps.setTimestamp(7, Timestamp.valueOf(createdAt));
+        ps.setTimestamp(8, Timestamp.valueOf(createdAt.plusSeconds(random.nextLong(30L * 24 * 3600))));
+    }
+
+    /**
+     * 每行使用独立的随机数序列，行的内容与生成顺序和批次划分无关
+     */
+    private SplittableRandom random(long row) {
+        return new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + row);
+    }
+
+    private int pickCategory(SplittableRandom random) {
+        int index = Arrays.binarySearch(categoryCdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, categoryCdf.length - 1);
+    }
+
+    private String text(SplittableRandom random, int minLength, int maxLength) {
+        int length = minLength == maxLength ? minLength : random.nextInt(minLength, maxLength + 1);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if (random.nextDouble() < spec.cjkRatio()) {
+                // 常用汉字区 U+4E00..U+9FA5
+                text.append((char) random.nextInt(0x4E00, 0x9FA6));
+            } else {
+                text.append(LATIN.charAt(random.nextInt(LATIN.length())));
+            }
+        }
+        return text.toString().strip();
+    }
+}
@@ -0,0 +1,154 @@
+package com.ecommerce.scale;
+
+import com.ecommerce.repository.IndexUsageChecker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 大规模目录下 ProductController 的延迟、堆内存和查询计划
+ * 只在 mvn -Pscale test 时运行。目录依次增长到 scale.sizes 中的各个规模（默认 1 万、100 万、1000 万行），
+ * 数据库为文件模式的 H2，数据不占用堆。生成器直接写库，ID过滤器不知道这些ID，因此关闭
+ */
+@Tag("scale")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/scale-db/catalog;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE",
+        "ecommerce.id-filter.enabled=false"
+})
+@ActiveProfiles("test")
+class CatalogScaleTest {
+
+    private static final int LOOKUPS = 500;
+    private static final int BATCH_LOOKUPS = 100;
+    private static final int BATCH_SIZE = 50;
+    private static final int LIST_ROUNDS = 5;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void controllerAtScale() throws IOException {
+        long[] sizes = Arrays.stream(System.getProperty("scale.sizes", "10000,1000000,10000000").split(","))
+                .mapToLong(size -> Long.parseLong(size.trim()))
+                .sorted()
+                .toArray();
+        long listMaxRows = Long.getLong("scale.list-max-rows", 100_000);
+        CatalogGenerator generator = new CatalogGenerator(jdbcTemplate, CatalogGenerator.Spec.defaults());
+        IndexUsageChecker checker = new IndexUsageChecker(jdbcTemplate);
+        List<String> problems = new ArrayList<>();
+
+        long rows = 0;
+        for (long size : sizes) {
+            long start = System.nanoTime();
+            long inserted = generator.generate(rows, size);
+            rows = size;
+            double loadSeconds = Math.max((System.nanoTime() - start) / 1e9, 1e-3);
+            jdbcTemplate.execute("ANALYZE");
+            System.out.printf("%n=== %,d 行（新增 %,d 行用时 %.1f s，%,.0f 行/s，数据库文件 %,d MB）===%n",
+                    size, inserted, loadSeconds, inserted / loadSeconds,
+                    Files.size(Path.of("target/scale-db/catalog.mv.db")) >> 20);
+
+            Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS lo, MAX(id) AS hi FROM products");
+            long lo = ((Number) range.get("lo")).longValue();
+            long hi = ((Number) range.get("hi")).longValue();
+            SplittableRandom random = new SplittableRandom(size);
+
+            report("GET /api/products/{id}", measure(LOOKUPS, () ->
+                    restTemplate.getForEntity("/api/products/" + random.nextLong(lo, hi + 1), byte[].class)));
+            report("GET /api/products?ids=" + BATCH_SIZE, measure(BATCH_LOOKUPS, () -> {
+                StringJoiner ids = new StringJoiner(",");
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    ids.add(Long.toString(random.nextLong(lo, hi + 1)));
+                }
+                return restTemplate.getForEntity("/api/products?ids=" + ids, byte[].class);
+            }));
+            if (size <= listMaxRows) {
+                report("GET /api/products", measure(LIST_ROUNDS, () ->
+                        restTemplate.getForEntity("/api/products", byte[].class)));
+            } else {
+                System.out.printf("GET /api/products: 跳过（超过 scale.list-max-rows=%,d）%n", listMaxRows);
+            }
+
+            System.gc();
+            System.out.printf("堆内存: 已用 %,d MB / 最大 %,d MB%n",
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20,
+                    Runtime.getRuntime().maxMemory() >> 20);
+
+            String category = generator.category(random.nextLong(size));
+            problems.addAll(checkPlans(checker, size, category, random.nextLong(lo, hi + 1)));
+        }
+        assertTrue(problems.isEmpty(), String.join("\n", problems));
+    }
+
+    /**
+     * 热点查询在当前规模下的执行计划：按ID查询、调价任务的分类查询、快照追赶的按修改时间查询
+     */
+    private static List<String> checkPlans(IndexUsageChecker checker, long size, String category, long id) {
+        List<String> problems = new ArrayList<>();
+        for (String problem : checker.check("SELECT * FROM products WHERE id = ?", List.of(id), false)) {
+            problems.add(size + " 行 - " + problem);
+        }
+        for (String problem : checker.check(
+                "SELECT id, name, price FROM products WHERE category = ? ORDER BY category, id", List.of(category), false)) {
+            problems.add(size + " 行 - " + problem);
+        }
+        for (String problem : checker.check("SELECT MIN(id), MAX(id) FROM products WHERE category = ?",
+                List.of(category), false)) {
+            problems.add(size + " 行 - " + problem);
+        }
+        for (String problem : checker.check("SELECT * FROM products WHERE updated_at >= ?",
+                List.of(LocalDateTime.of(2025, 12, 30, 0, 0)), false)) {
+            problems.add(size + " 行 - " + problem);
+        }
+        return problems;
+    }
+
+    /**
+     * 逐个发出请求，返回每个请求的耗时（纳秒，已排序）
+     */
+    private static long[] measure(int requests, Supplier<ResponseEntity<byte[]>> request) {
+        long[] nanos = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            ResponseEntity<byte[]> response = request.get();
+            nanos[i] = System.nanoTime() - start;
+            assertTrue(response.getStatusCode().is2xxSuccessful() || response.getStatusCode().value() == 404,
+                    "状态码 " + response.getStatusCode());
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static void report(String endpoint, long[] nanos) {
+        System.out.printf("%s: p50 %.2f ms, p99 %.2f ms, 最大 %.2f ms（%d 次）%n", endpoint,
+                percentile(nanos, 0.50) / 1e6, percentile(nanos, 0.99) / 1e6, nanos[nanos.length - 1] / 1e6,
+                nanos.length);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+}
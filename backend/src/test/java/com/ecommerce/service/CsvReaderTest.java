@@ -0,0 +1,43 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_ShouldHandleQuotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "name,description\r\n\"杯子, 大\",\"说 \"\"经典\"\"\n第二行\"\r\n\n键盘,\n"));
+
+        assertEquals(List.of("name", "description"), csv.next());
+        assertEquals(List.of("杯子, 大", "说 \"经典\"\n第二行"), csv.next());
+        assertEquals(2, csv.recordLine());
+        assertEquals(List.of("键盘", ""), csv.next());
+        assertEquals(5, csv.recordLine());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void next_WithoutTrailingNewline_ShouldReturnLastRecord() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n1,2"));
+
+        assertEquals(List.of("a", "b"), csv.next());
+        assertEquals(List.of("1", "2"), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void next_WithUnterminatedQuote_ShouldThrow() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n\"1,2\n3,4\n"));
+        csv.next();
+
+        CsvReader.CsvFormatException e = assertThrows(CsvReader.CsvFormatException.class, csv::next);
+        assertTrue(e.getMessage().startsWith("第 2 行"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "ecommerce.price-rules.chunk-size=7")
+@ActiveProfiles("test")
+class PriceRuleServiceTest {
+
+    @Autowired
+    private PriceRuleService priceRuleService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String category = i % 4 == 0 ? "书籍" : "电子产品";
+            products.add(new Product("Product " + i, null, new BigDecimal("100.00"), 1, category, null));
+        }
+        productRepository.saveAll(products);
+    }
+
+    @Test
+    void start_ShouldRepriceCategoryInIndependentChunks() throws InterruptedException {
+        // 准备
+        PriceRule rule = new PriceRule("电子产品", new BigDecimal("-10"), null);
+        Product cached = productService.getAllProducts().stream()
+                .filter(p -> "电子产品".equals(p.getCategory()))
+                .findFirst()
+                .orElseThrow();
+
+        // 执行
+        PriceRuleJob job = priceRuleService.start(rule);
+        awaitFinished(job);
+
+        // 断言
+        assertEquals(PriceRuleJob.Status.COMPLETED, job.getStatus());
+        assertTrue(job.getTotalChunks() > 1);
+        assertEquals(job.getTotalChunks(), job.getCompletedChunks());
+        assertEquals(75, job.getProductsUpdated());
+        for (Product product : productRepository.findAll()) {
+            BigDecimal expected = "电子产品".equals(product.getCategory()) ? new BigDecimal("90.00") : new BigDecimal("100.00");
+            assertEquals(0, expected.compareTo(product.getPrice()), "产品 " + product.getId());
+        }
+        assertEquals(0, new BigDecimal("90.00").compareTo(productService.getProductById(cached.getId()).orElseThrow().getPrice()));
+        assertSame(job, priceRuleService.findJob(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void preview_ShouldNotModifyPrices() {
+        // 执行
+        PricePreview preview = priceRuleService.preview(new PriceRule("书籍", new BigDecimal("50"), null));
+
+        // 断言
+        assertEquals(25, preview.matchedProducts());
+        assertEquals(25, preview.changedProducts());
+        assertEquals(0, new BigDecimal("3750.00").compareTo(preview.totalAfter()));
+        assertEquals(20, preview.sample().size());
+        assertTrue(productRepository.findAll().stream().allMatch(p -> p.getPrice().compareTo(new BigDecimal("100.00")) == 0));
+    }
+
+    private void awaitFinished(PriceRuleJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (job.getStatus() == PriceRuleJob.Status.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "调价任务超时");
+            Thread.sleep(10);
+        }
+    }
+}
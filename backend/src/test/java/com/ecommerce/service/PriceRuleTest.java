@@ -0,0 +1,36 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceRuleTest {
+
+    @Test
+    void apply_ShouldRoundToCentByDefault() {
+        PriceRule rule = new PriceRule("电子产品", new BigDecimal("-10"), null);
+
+        assertEquals(PriceRule.Rounding.CENT, rule.rounding());
+        assertEquals(new BigDecimal("8099.99"), rule.apply(new BigDecimal("8999.99")));
+        assertEquals(new BigDecimal("0.45"), rule.apply(new BigDecimal("0.50")));
+    }
+
+    @Test
+    void apply_WithEnd99_ShouldUseNearestPriceEndingIn99() {
+        PriceRule rule = new PriceRule("电子产品", new BigDecimal("-10"), PriceRule.Rounding.END_99);
+
+        assertEquals(new BigDecimal("8099.99"), rule.apply(new BigDecimal("8999.99")));
+        assertEquals(new BigDecimal("80.99"), rule.apply(new BigDecimal("90.20")));
+        // 不足 0.5 元时没有以 .99 结尾的价格，退回到分
+        assertEquals(new BigDecimal("0.27"), rule.apply(new BigDecimal("0.30")));
+    }
+
+    @Test
+    void apply_WithWholeRounding_ShouldKeepTwoDecimalPlaces() {
+        PriceRule rule = new PriceRule("书籍", new BigDecimal("15"), PriceRule.Rounding.WHOLE);
+
+        assertEquals(new BigDecimal("115.00"), rule.apply(new BigDecimal("99.99")));
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.service;
+
+import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"ecommerce.import.chunk-size=7", "ecommerce.import.max-upload-size=64KB"})
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void submit_ShouldImportValidRowsInChunksAndReportRejectedRows() throws Exception {
+        // 准备
+        StringBuilder csv = new StringBuilder("name,price,stockQuantity,category,image_url,sku\n");
+        for (int i = 0; i < 30; i++) {
+            csv.append("Product ").append(i).append(",19.90,").append(i).append(",书籍,,SKU-").append(i).append('\n');
+        }
+        csv.append(",19.90,1,书籍,,x\n");
+        csv.append("\"Mug, \"\"large\"\"\",abc,1,书籍,,x\n");
+        csv.append("Lamp,-1,1,书籍,,x\n");
+        csv.append("Chair,1.999,1,书籍,,x\n");
+        csv.append("Desk,10\n");
+        assertTrue(productService.getAllProducts().isEmpty());
+
+        // 执行
+        ProductImportJob job = importService.submit(upload(csv.toString()));
+        awaitFinished(job);
+
+        // 断言
+        assertEquals(ProductImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(35, job.getRowsRead());
+        assertEquals(30, job.getRowsImported());
+        assertEquals(5, job.getRowsRejected());
+        assertEquals(100.0, job.getProgress());
+        assertEquals(List.of(32L, 33L, 34L, 35L, 36L),
+                job.getErrors().stream().map(ProductImportJob.RowError::line).toList());
+        assertEquals("价格格式无效: abc", job.getErrors().get(1).message());
+        List<Product> products = productService.getAllProducts();
+        assertEquals(30, products.size());
+        Product product = products.stream().filter(p -> "Product 29".equals(p.getName())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("19.90").compareTo(product.getPrice()));
+        assertEquals(29, product.getStockQuantity());
+        assertNull(product.getImageUrl());
+        assertNotNull(product.getCreatedAt());
+        assertTrue(productService.getProductById(product.getId()).isPresent());
+        assertSame(job, importService.findJob(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void submit_WithoutRequiredColumn_ShouldFailJob() throws Exception {
+        // 执行
+        ProductImportJob job = importService.submit(upload("name,stock_quantity\nBook,1\n"));
+        awaitFinished(job);
+
+        // 断言
+        assertEquals(ProductImportJob.Status.FAILED, job.getStatus());
+        assertEquals("CSV 表头缺少列: price", job.getError());
+        assertEquals(0, productRepository.count());
+    }
+
+    @Test
+    void submit_WhenUploadExceedsLimit_ShouldReject() {
+        // 准备
+        String csv = "name,price\n" + "Book,1.00\n".repeat(10_000);
+
+        // 执行 & 断言
+        assertThrows(ImportTooLargeException.class, () -> importService.submit(upload(csv)));
+    }
+
+    private static ByteArrayInputStream upload(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void awaitFinished(ProductImportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (job.getStatus() == ProductImportJob.Status.QUEUED || job.getStatus() == ProductImportJob.Status.RUNNING) {
+            assertTrue(System.nanoTime() < deadline, "导入任务超时");
+            Thread.sleep(10);
+        }
+    }
+}
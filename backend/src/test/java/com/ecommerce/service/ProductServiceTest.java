@@ -1,13 +1,23 @@
 package com.ecommerce.service;
 
+import com.ecommerce.cache.ProductCache;
+import com.ecommerce.cache.ProductIdFilter;
+import com.ecommerce.cache.ProductReadModel;
+import com.ecommerce.cache.RelatedProductsIndex;
+import com.ecommerce.cache.SingleFlight;
+import com.ecommerce.cache.TrendingProducts;
 import com.ecommerce.model.Product;
+import com.ecommerce.repository.ProductReplicaReader;
 import com.ecommerce.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -16,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -25,6 +36,30 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
     
+    @Mock
+    private ProductReplicaReader replicaReader;
+    
+    @Mock
+    private ProductCache productCache;
+    
+    @Mock
+    private ProductReadModel readModel;
+    
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry());
+    
+    @Mock
+    private ProductIdFilter idFilter;
+    
+    @Mock
+    private TrendingProducts trending;
+    
+    @Mock
+    private RelatedProductsIndex relatedIndex;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
     @InjectMocks
     private ProductService productService;
     
@@ -68,6 +103,7 @@ class ProductServiceTest {
         assertTrue(result.isPresent());
         assertEquals("Test Product", result.get().getName());
         verify(productRepository, times(1)).findById(1L);
+        verify(trending).recordView(1L);
     }
     
     @Test
@@ -81,6 +117,100 @@ class ProductServiceTest {
         // 断言
         assertFalse(result.isPresent());
         verify(productRepository, times(1)).findById(999L);
+        verify(trending, never()).recordView(anyLong());
+    }
+    
+    @Test
+    void getProductById_WhenHedgingEnabled_ShouldReadFromReplicas() {
+        // 准备
+        when(replicaReader.isEnabled()).thenReturn(true);
+        when(replicaReader.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // 执行
+        Optional<Product> result = productService.getProductById(1L);
+
+        // 断言
+        assertEquals("Test Product", result.orElseThrow().getName());
+        verify(productRepository, never()).findById(anyLong());
+        verify(productCache).putIfFresh(eq(testProduct), anyLong());
+    }
+
+    @Test
+    void getProductById_WhenRecentlyInvalidated_ShouldReadFromPrimary() {
+        // 准备：副本可能还没有应用刚发生的修改
+        when(replicaReader.isEnabled()).thenReturn(true);
+        when(productCache.invalidatedWithin(eq(1L), any())).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // 执行
+        Optional<Product> result = productService.getProductById(1L);
+
+        // 断言
+        assertTrue(result.isPresent());
+        verify(replicaReader, never()).findById(anyLong());
+        verify(productCache).putIfFresh(eq(testProduct), anyLong());
+    }
+
+    @Test
+    void getProductById_WhenIdFilterRulesOutId_ShouldNotQueryRepository() {
+        // 准备
+        when(idFilter.isDefinitelyAbsent(999L)).thenReturn(true);
+        
+        // 执行
+        Optional<Product> result = productService.getProductById(999L);
+        
+        // 断言
+        assertFalse(result.isPresent());
+        verify(productRepository, never()).findById(anyLong());
+    }
+    
+    @Test
+    void getProductById_WhenCached_ShouldNotQueryRepository() {
+        // 准备
+        when(productCache.get(1L)).thenReturn(Optional.of(testProduct));
+        
+        // 执行
+        Optional<Product> result = productService.getProductById(1L);
+        
+        // 断言
+        assertTrue(result.isPresent());
+        verify(productRepository, never()).findById(anyLong());
+    }
+    
+    @Test
+    void getRelatedProducts_WhenProductNotIndexed_ShouldFallBackToExistenceCheck() {
+        // 准备
+        when(relatedIndex.related(anyLong(), anyInt())).thenReturn(Optional.empty());
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        
+        // 执行、断言：产品存在时返回空列表，不存在时返回空
+        assertEquals(Optional.of(List.of()), productService.getRelatedProducts(1L, 5));
+        assertTrue(productService.getRelatedProducts(999L, 5).isEmpty());
+        verify(trending, never()).recordView(anyLong());
+    }
+    
+    @Test
+    void getProductsByIds_ShouldQueryOnlyCacheMissesAndKeepRequestOrder() {
+        // 准备：1 在缓存中，2 在数据库中，3 不存在
+        Product second = new Product();
+        second.setId(2L);
+        when(productCache.get(anyLong())).thenReturn(Optional.empty());
+        when(productCache.get(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(second));
+        
+        // 执行
+        List<ProductLookup> result = productService.getProductsByIds(List.of(3L, 1L, 2L, 1L));
+        
+        // 断言
+        assertEquals(4, result.size());
+        assertFalse(result.get(0).found());
+        assertEquals(3L, result.get(0).id());
+        assertSame(testProduct, result.get(1).product());
+        assertSame(second, result.get(2).product());
+        assertSame(testProduct, result.get(3).product());
+        verify(productRepository, times(1)).findAllById(List.of(3L, 2L));
+        verify(productRepository, never()).findById(anyLong());
     }
     
     @Test
@@ -160,29 +290,28 @@ class ProductServiceTest {
     @Test
     void deleteProduct_WhenProductExists_ShouldReturnTrue() {
         // 准备
-        when(productRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(productRepository).deleteById(1L);
+        when(productRepository.deleteProductById(1L)).thenReturn(1);
         
         // 执行
         boolean result = productService.deleteProduct(1L);
         
         // 断言
         assertTrue(result);
-        verify(productRepository, times(1)).existsById(1L);
-        verify(productRepository, times(1)).deleteById(1L);
+        verify(productRepository, times(1)).deleteProductById(1L);
+        verify(eventPublisher, times(1)).publishEvent(ProductChangedEvent.deleted(1L));
     }
     
     @Test
     void deleteProduct_WhenProductDoesNotExist_ShouldReturnFalse() {
         // 准备
-        when(productRepository.existsById(anyLong())).thenReturn(false);
+        when(productRepository.deleteProductById(anyLong())).thenReturn(0);
         
         // 执行
         boolean result = productService.deleteProduct(999L);
         
         // 断言
         assertFalse(result);
-        verify(productRepository, times(1)).existsById(999L);
-        verify(productRepository, never()).deleteById(anyLong());
+        verify(productRepository, times(1)).deleteProductById(999L);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 }
@@ -0,0 +1,164 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.Bulkhead;
+import com.ecommerce.model.Product;
+import com.ecommerce.service.WriteCoalescingProperties.Durability;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductWriteCoalescerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private Bulkhead writeBulkhead;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private WriteCoalescingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductWriteCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WriteCoalescingProperties();
+        properties.setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new ProductWriteCoalescer(properties, productService, writeBulkhead, taskScheduler, meterRegistry);
+    }
+
+    @Test
+    void update_WithinWindow_ShouldWriteLastValueOnceAndCompleteAllCallers() {
+        // 准备
+        runBulkheadInline();
+        when(productService.updateProduct(eq(1L), any())).thenAnswer(invocation -> {
+            Product saved = product(1L, invocation.<Product>getArgument(1).getPrice().toPlainString());
+            return Optional.of(saved);
+        });
+
+        // 执行
+        CompletableFuture<Optional<Product>> first = coalescer.update(1L, product(null, "10.00"));
+        CompletableFuture<Optional<Product>> second = coalescer.update(1L, product(null, "11.00"));
+        CompletableFuture<Optional<Product>> third = coalescer.update(1L, product(null, "12.00"));
+        assertFalse(first.isDone());
+        endWindow();
+
+        // 断言
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+        ArgumentCaptor<Product> written = ArgumentCaptor.forClass(Product.class);
+        verify(productService, times(1)).updateProduct(eq(1L), written.capture());
+        assertEquals(new BigDecimal("12.00"), written.getValue().getPrice());
+        for (CompletableFuture<Optional<Product>> caller : List.of(first, second, third)) {
+            assertEquals(new BigDecimal("12.00"), caller.join().orElseThrow().getPrice());
+        }
+        assertEquals(2, meterRegistry.get("product.write.coalesced").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WhenPreviousBatchStillWriting_ShouldWaitForIt() {
+        // 准备：第一个批次的写入迟迟不完成
+        CompletableFuture<Object> slowWrite = new CompletableFuture<>();
+        when(writeBulkhead.submit(any()))
+                .thenAnswer(invocation -> slowWrite)
+                .thenAnswer(invocation ->
+                        CompletableFuture.completedFuture(invocation.<Supplier<Object>>getArgument(0).get()));
+        when(productService.updateProduct(eq(1L), any())).thenReturn(Optional.of(product(1L, "11.00")));
+        coalescer.update(1L, product(null, "10.00"));
+        endWindow();
+
+        // 执行：第二个窗口在第一个批次提交前结束
+        CompletableFuture<Optional<Product>> second = coalescer.update(1L, product(null, "11.00"));
+        endWindow();
+
+        // 断言
+        verify(writeBulkhead, times(1)).submit(any());
+        assertFalse(second.isDone());
+
+        // 执行
+        slowWrite.complete(Optional.of(product(1L, "10.00")));
+
+        // 断言：第二个批次在第一个批次完成后才写入
+        verify(writeBulkhead, times(2)).submit(any());
+        assertEquals(new BigDecimal("11.00"), second.join().orElseThrow().getPrice());
+    }
+
+    @Test
+    void update_WhenAccepted_ShouldExposePendingValueUntilCommitted() {
+        // 准备
+        properties.setDurability(Durability.ACCEPTED);
+        runBulkheadInline();
+        when(productService.getProductsByIds(List.of(1L)))
+                .thenReturn(List.of(new ProductLookup(1L, product(1L, "10.00"))));
+        when(productService.updateProduct(eq(1L), any())).thenReturn(Optional.of(product(1L, "15.00")));
+
+        // 执行
+        Optional<Product> accepted = coalescer.update(1L, product(null, "15.00")).join();
+
+        // 断言
+        assertEquals(1L, accepted.orElseThrow().getId());
+        assertEquals(new BigDecimal("15.00"), coalescer.pending(1L).orElseThrow().getPrice());
+        assertEquals(new BigDecimal("15.00"),
+                coalescer.withPending(List.of(new ProductLookup(1L, product(1L, "10.00")))).get(0).product().getPrice());
+
+        // 执行
+        endWindow();
+
+        // 断言
+        assertTrue(coalescer.pending(1L).isEmpty());
+    }
+
+    @Test
+    void update_WhenAcceptedAndProductMissing_ShouldNotOpenWindow() {
+        // 准备
+        properties.setDurability(Durability.ACCEPTED);
+        when(productService.getProductsByIds(List.of(99L))).thenReturn(List.of(new ProductLookup(99L, null)));
+
+        // 执行
+        Optional<Product> result = coalescer.update(99L, product(null, "15.00")).join();
+
+        // 断言
+        assertTrue(result.isEmpty());
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+        verify(productService, never()).updateProduct(anyLong(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runBulkheadInline() {
+        when(writeBulkhead.submit(any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(invocation.<Supplier<Object>>getArgument(0).get()));
+    }
+
+    private void endWindow() {
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, atLeastOnce()).schedule(flush.capture(), any(Instant.class));
+        flush.getValue().run();
+    }
+
+    private static Product product(Long id, String price) {
+        Product product = new Product("价格机器人更新", null, new BigDecimal(price), 10, "电子产品", null);
+        product.setId(id);
+        return product;
+    }
+}
@@ -11,6 +11,7 @@ CREATE DATABASE IF NOT EXISTS ecommerce CHARACTER SET utf8mb4 COLLATE utf8mb4_un
 USE ecommerce;
 
 -- Drop table if exists (for clean initialization)
+DROP TABLE IF EXISTS product_changes;
 DROP TABLE IF EXISTS products;
 
 -- Create products table
@@ -20,12 +21,24 @@ CREATE TABLE products (
     description TEXT,
     price DECIMAL(10, 2) NOT NULL,
     stock_quantity INT NOT NULL DEFAULT 0,
+    reorder_threshold INT,
     category VARCHAR(100),
     image_url VARCHAR(500),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    INDEX idx_category (category),
-    INDEX idx_name (name)
+    INDEX idx_category (category, id),
+    INDEX idx_name (name),
+    INDEX idx_updated_at (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 产品变更日志：与产品修改在同一事务中写入，各后端实例按 version 轮询以失效本地缓存
+CREATE TABLE product_changes (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    origin VARCHAR(64) NOT NULL,
+    changed_at DATETIME(6) NOT NULL,
+    INDEX idx_changed_at (changed_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- 初始化产品数据
@@ -2,7 +2,8 @@
 const API_BASE_URL = '/api';
 const API_ENDPOINTS = {
     products: `${API_BASE_URL}/products`,
-    productById: (id) => `${API_BASE_URL}/products/${id}`
+    productById: (id) => `${API_BASE_URL}/products/${id}`,
+    inventoryAnalytics: `${API_BASE_URL}/analytics/inventory`
 };
 
 let currentProducts = [];
@@ -65,6 +66,14 @@ async function fetchProducts() {
     }
 }
 
+async function fetchInventoryAnalytics() {
+    const response = await fetch(API_ENDPOINTS.inventoryAnalytics);
+    if (!response.ok) {
+        throw new Error(`HTTP ${response.status}: ${response.statusText}`);
+    }
+    return response.json();
+}
+
 async function createProduct(productData) {
     try {
         const response = await fetch(API_ENDPOINTS.products, {
@@ -199,6 +208,45 @@ async function loadProducts() {
     } catch (error) {
         showError(error.message);
     }
+    
+    loadInventoryAnalytics();
+}
+
+// Inventory Analytics Functions
+function renderInventoryAnalytics(report) {
+    document.getElementById('inventory-summary').textContent =
+        `共 ${report.products} 个产品，库存 ${report.units} 件，货值 ${formatPrice(report.stockValue)}，` +
+        `库存不足 ${report.lowStock} 个，缺货 ${report.outOfStock} 个，低于补货阈值 ${report.belowReorder} 个`;
+    
+    const tbody = document.getElementById('inventory-table-body');
+    tbody.innerHTML = '';
+    report.categories.forEach(category => {
+        const row = document.createElement('tr');
+        row.innerHTML = `
+            <td>${escapeHtml(category.category || '未分类')}</td>
+            <td>${category.products}</td>
+            <td>${category.units}</td>
+            <td>${formatPrice(category.stockValue)}</td>
+            <td>${category.lowStock}</td>
+            <td>${category.outOfStock}</td>
+            <td>${category.belowReorder}</td>
+            <td>${formatPrice(category.minPrice)} - ${formatPrice(category.maxPrice)}</td>
+            <td>${formatPrice(category.averagePrice)}</td>
+        `;
+        tbody.appendChild(row);
+    });
+}
+
+// 库存分析加载失败（如后端尚未加载完成）不影响产品管理，只是不显示
+async function loadInventoryAnalytics() {
+    try {
+        const report = await fetchInventoryAnalytics();
+        renderInventoryAnalytics(report);
+        showElement('inventory-analytics');
+    } catch (error) {
+        console.error('获取库存分析出错:', error);
+        hideElement('inventory-analytics');
+    }
 }
 
 // Modal Functions
@@ -248,6 +296,7 @@ window.editProduct = function(productId) {
     document.getElementById('product-category').value = product.category || '';
     document.getElementById('product-price').value = product.price;
     document.getElementById('product-stock').value = product.stockQuantity;
+    document.getElementById('product-reorder-threshold').value = product.reorderThreshold || '';
     document.getElementById('product-image-url').value = product.imageUrl || '';
     document.getElementById('product-description').value = product.description || '';
     
@@ -286,6 +335,8 @@ document.addEventListener('DOMContentLoaded', () => {
             category: document.getElementById('product-category').value.trim() || null,
             price: parseFloat(document.getElementById('product-price').value),
             stockQuantity: parseInt(document.getElementById('product-stock').value),
+            reorderThreshold: document.getElementById('product-reorder-threshold').value === ''
+                ? null : parseInt(document.getElementById('product-reorder-threshold').value),
             imageUrl: document.getElementById('product-image-url').value.trim() || null,
             description: document.getElementById('product-description').value.trim() || null
         };
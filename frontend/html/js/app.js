@@ -2,9 +2,13 @@
 const API_BASE_URL = '/api';
 const API_ENDPOINTS = {
     products: `${API_BASE_URL}/products`,
-    productById: (id) => `${API_BASE_URL}/products/${id}`
+    productById: (id) => `${API_BASE_URL}/products/${id}`,
+    relatedProducts: (id, limit) => `${API_BASE_URL}/products/${id}/related?limit=${limit}`
 };
 
+// 详情页展示的相似商品数
+const RELATED_PRODUCTS_LIMIT = 4;
+
 // Retry configuration
 const RETRY_CONFIG = {
     maxRetries: 3,
@@ -117,6 +121,11 @@ async function fetchProductById(id) {
     }
 }
 
+async function fetchRelatedProducts(id) {
+    const response = await fetchWithRetry(API_ENDPOINTS.relatedProducts(id, RELATED_PRODUCTS_LIMIT));
+    return response.json();
+}
+
 // Formatting Functions
 function formatPrice(price) {
     return new Intl.NumberFormat('zh-CN', {
@@ -254,6 +263,28 @@ async function loadProductDetail() {
         displayProductDetail(product);
     } catch (error) {
         showError(error.message);
+        return;
+    }
+
+    loadRelatedProducts(productId);
+}
+
+// 相似商品加载失败不影响详情页，只是不显示
+async function loadRelatedProducts(productId) {
+    try {
+        const products = await fetchRelatedProducts(productId);
+        if (!products || products.length === 0) {
+            return;
+        }
+
+        const relatedGrid = document.getElementById('related-grid');
+        relatedGrid.innerHTML = '';
+        products.forEach(product => {
+            relatedGrid.appendChild(createProductCard(product));
+        });
+        showElement('related-products');
+    } catch (error) {
+        console.error(`获取产品 ${productId} 的相似商品出错:`, error);
     }
 }
 
@@ -172,7 +172,11 @@ fi
 print_info ""
 print_info "4. Once stable, scale down the old environment:"
 if [ "$TARGET_ENV" == "blue" ]; then
-    print_info "   kubectl scale deployment backend-green frontend-green -n $NAMESPACE --replicas=0"
+    OLD_ENV="green"
 else
-    print_info "   kubectl scale deployment backend-blue frontend-blue -n $NAMESPACE --replicas=0"
+    OLD_ENV="blue"
 fi
+print_info "   kubectl scale deployment backend-$OLD_ENV frontend-$OLD_ENV -n $NAMESPACE --replicas=0"
+print_info "   Old backend pods drain in-flight requests and transactions before exiting."
+print_info "   Watch drain progress with:"
+print_info "   kubectl exec -n $NAMESPACE <backend-$OLD_ENV-pod> -- wget -qO- http://localhost:8080/actuator/drain"